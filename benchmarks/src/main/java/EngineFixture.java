@@ -0,0 +1,83 @@
+import bench.EngineTarget;
+
+// 引擎基準測試夾具：把指定長度的蛇沿著哈密頓迴路排好，讓每一次操作都在相同蛇長下進行
+public class EngineFixture implements EngineTarget {
+
+    private final SnakeEngine engine;
+    private final int length;
+    // 每一格沿迴路前進的方向，讓 move() 可以一直走下去而不會撞到自己
+    private final char[] nextDirection;
+
+    public EngineFixture(int screenWidth, int screenHeight, int length, String strategy) {
+        int cols = screenWidth / 25;
+        int rows = screenHeight / 25;
+        this.engine = new SnakeEngine(cols, rows, 42L);
+        this.engine.setStrategy(AutopilotStrategies.create(AutopilotStrategies.indexOf(strategy)));
+        this.length = length;
+        this.nextDirection = new char[cols * rows];
+        HamiltonianCycle cycle = HamiltonianCycle.forBoard(cols, rows);
+        for (int cell = 0; cell < cols * rows; cell++) {
+            if (cycle.contains(cell)) {
+                int next = cycle.next(cell);
+                nextDirection[cell] = next == cell - cols ? 'U' : next == cell + cols ? 'D' : next == cell - 1 ? 'L' : 'R';
+            }
+        }
+        layOnCycle(engine, length);
+    }
+
+    // 把蛇沿著迴路排好 (蛇頭在迴路第 length - 1 格)，並放置食物
+    static void layOnCycle(SnakeEngine engine, int length) {
+        HamiltonianCycle cycle = HamiltonianCycle.forBoard(engine.getCols(), engine.getRows());
+        int count = Math.min(length, cycle.length - 2);
+        int[] cells = new int[count];
+        for (int i = 0; i < count; i++) {
+            cells[i] = cycle.cycle[count - 1 - i];
+        }
+        engine.loadBody(cells, count);
+        engine.setDirection(engine.getSegmentX(0) > engine.getSegmentX(1) ? 'R'
+                : engine.getSegmentX(0) < engine.getSegmentX(1) ? 'L'
+                : engine.getSegmentY(0) > engine.getSegmentY(1) ? 'D' : 'U');
+        engine.newFood();
+        // 跳過第 0 刻，避免策略把每次呼叫都當成新遊戲的開始
+        engine.ticks = 1;
+    }
+
+    @Override
+    public int decide() {
+        engine.makeDecision();
+        return engine.getDirection();
+    }
+
+    @Override
+    public void move() {
+        engine.setDirection(nextDirection[engine.getHeadCell()]);
+        engine.move();
+    }
+
+    @Override
+    public boolean checkCollisions() {
+        engine.checkCollisions();
+        return engine.isRunning();
+    }
+
+    @Override
+    public int checkFood() {
+        engine.foodX = engine.getHeadX();
+        engine.foodY = engine.getHeadY();
+        engine.checkFood();
+        // 不讓蛇長大，維持固定蛇長
+        engine.pendingGrowth = 0;
+        return engine.getFoodY() * engine.getCols() + engine.getFoodX();
+    }
+
+    @Override
+    public boolean tick() {
+        boolean running = engine.step();
+        engine.pendingGrowth = 0;
+        if (!running) {
+            // 策略撞死時重新排好蛇身 (貪婪策略在長蛇時很快就會發生)
+            layOnCycle(engine, length);
+        }
+        return running;
+    }
+}
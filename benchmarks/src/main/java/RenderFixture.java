@@ -0,0 +1,57 @@
+import bench.RenderTarget;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+// 繪圖基準測試夾具：建立一個不顯示的 GamePanel，把指定長度的蛇畫進離屏影像
+public class RenderFixture implements RenderTarget {
+
+    private final GamePanel panel;
+    private final Graphics2D graphics;
+    private final int length;
+    private final int screenWidth;
+
+    public RenderFixture(int screenWidth, int screenHeight, int length) {
+        // 計時器在建構時就會啟動，先設定很長的間隔再停止，避免背景的遊戲刻改動狀態
+        GameSettings.publish(GameSettings.current().withScreenSize(screenWidth, screenHeight).withGameSpeed(60_000));
+        panel = new GamePanel();
+        panel.timer.stop();
+        panel.setSize(screenWidth, screenHeight);
+        // 使用不會撞死的策略，讓每一刻都在相同蛇長下進行
+        panel.engine.setStrategy(new HamiltonianStrategy());
+        this.length = length;
+        this.screenWidth = screenWidth;
+        EngineFixture.layOnCycle(panel.engine, length);
+        panel.invalidateBoard();
+
+        BufferedImage image = new BufferedImage(screenWidth, screenHeight, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @Override
+    public void draw() {
+        panel.draw(graphics);
+    }
+
+    @Override
+    public void tick() {
+        panel.actionPerformed(null);
+        // 不讓蛇長大，維持固定蛇長
+        panel.engine.pendingGrowth = 0;
+        if (!panel.engine.isRunning()) {
+            EngineFixture.layOnCycle(panel.engine, length);
+            panel.invalidateBoard();
+        }
+    }
+
+    @Override
+    public void redraw() {
+        panel.invalidateBoard();
+        panel.draw(graphics);
+    }
+
+    @Override
+    public void drawGameOver() {
+        panel.gameOver(graphics, 0, 0, screenWidth);
+    }
+}
@@ -0,0 +1,21 @@
+package bench;
+
+// 遊戲引擎的基準測試目標
+// 遊戲類別位於未命名套件，JMH 的測試類別無法直接引用，因此由未命名套件中的 EngineFixture 實作此介面
+public interface EngineTarget {
+
+    // 自動駕駛決策，回傳方向
+    int decide();
+
+    // 移動一格 (沿著固定的環狀路線，蛇長不變)
+    void move();
+
+    // 碰撞偵測，回傳遊戲是否仍在進行
+    boolean checkCollisions();
+
+    // 吃到食物並放置新食物，回傳新食物的位置
+    int checkFood();
+
+    // 完整的一個遊戲刻 (決策、移動、碰撞、食物)，蛇長維持不變
+    boolean tick();
+}
@@ -0,0 +1,27 @@
+package bench;
+
+// 以反射建立未命名套件中的測試夾具 (只在 @Setup 時呼叫一次，不影響測量)
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static <T> T create(String className, Class<T> type, Object... args) {
+        try {
+            for (java.lang.reflect.Constructor<?> constructor : Class.forName(className).getConstructors()) {
+                if (constructor.getParameterCount() == args.length) {
+                    return type.cast(constructor.newInstance(args));
+                }
+            }
+            throw new IllegalStateException("No matching constructor in " + className);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + className, e);
+        }
+    }
+
+    // "800x600" => {800, 600}
+    static int[] parseBoard(String board) {
+        String[] parts = board.split("x");
+        return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+}
@@ -0,0 +1,59 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// GamePanel.draw(Graphics) 畫進離屏 BufferedImage 的基準測試 (headless 模式)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    @Param({"800x600", "1920x1080"})
+    public String board;
+
+    @Param({"10", "500", "3000"})
+    public int length;
+
+    private RenderTarget target;
+
+    @Setup
+    public void setup() {
+        int[] size = Fixtures.parseBoard(board);
+        target = Fixtures.create("RenderFixture", RenderTarget.class, size[0], size[1], length);
+    }
+
+    @Benchmark
+    public void draw() {
+        target.draw();
+    }
+
+    @Benchmark
+    public void tickAndUpdateLayer() {
+        target.tick();
+    }
+
+    @Benchmark
+    public void rebuildLayer() {
+        target.redraw();
+    }
+
+    @Benchmark
+    public void gameOverScreen() {
+        target.drawGameOver();
+    }
+}
@@ -0,0 +1,17 @@
+package bench;
+
+// GamePanel.draw(Graphics) 的基準測試目標，由未命名套件中的 RenderFixture 實作
+public interface RenderTarget {
+
+    // 把一整個畫面畫進離屏影像
+    void draw();
+
+    // 執行一個遊戲刻並發布畫面快照 (GamePanel.actionPerformed)；棋盤圖層在下一次 draw() 時只更新有變動的格子
+    void tick();
+
+    // 棋盤圖層失效後完整重畫一次 (新遊戲、重播跳轉時)
+    void redraw();
+
+    // 畫出遊戲結束畫面 (分數與訊息文字)
+    void drawGameOver();
+}
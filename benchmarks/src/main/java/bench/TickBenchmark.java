@@ -0,0 +1,68 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// 遊戲刻各階段的基準測試：不同畫面大小、蛇長與自動駕駛策略
+// 蛇長超過棋盤可容納的長度時，會縮減為棋盤格數減 2
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark {
+
+    @Param({"800x600", "1920x1080"})
+    public String board;
+
+    @Param({"10", "500", "3000"})
+    public int length;
+
+    @Param({"Greedy", "Pathfinding", "Hamiltonian"})
+    public String strategy;
+
+    private EngineTarget target;
+
+    @Setup
+    public void setup() {
+        int[] size = Fixtures.parseBoard(board);
+        target = Fixtures.create("EngineFixture", EngineTarget.class, size[0], size[1], length, strategy);
+    }
+
+    @Benchmark
+    public int makeDecision() {
+        return target.decide();
+    }
+
+    @Benchmark
+    public void move() {
+        target.move();
+    }
+
+    @Benchmark
+    public boolean checkCollisions() {
+        return target.checkCollisions();
+    }
+
+    @Benchmark
+    public int checkFoodAndNewFood() {
+        return target.checkFood();
+    }
+
+    @Benchmark
+    public boolean fullTick() {
+        return target.tick();
+    }
+}
@@ -0,0 +1,135 @@
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+
+// 主動繪圖模式：由專屬的遊戲執行緒以固定時間步長推進模擬 (落後時補跑)，
+// 並透過視窗的 BufferStrategy 自行繪製插值後的畫面，與 Swing Timer 及 EDT 的負載無關
+// 加速倍率不是 1x 時每個時間步長推進 warp 刻；全速時在兩幀之間盡量推進
+public class ActiveRenderLoop implements Runnable {
+
+    // 畫面更新上限 (每秒幀數)
+    private static final int MAX_FPS = 60;
+    // 一次最多補跑的遊戲刻數，超過時放棄追趕，避免越落越多
+    private static final int MAX_CATCH_UP = 5;
+
+    private final JFrame frame;
+    private final GamePanel panel;
+    // 每個遊戲刻的時間 (設定被熱重新載入時可以改變)
+    private volatile long tickNanos;
+    // 每個時間步長推進的刻數 (0 表示全速)
+    private volatile int warp = 1;
+    private volatile boolean running = true;
+    private Thread thread;
+
+    public ActiveRenderLoop(JFrame frame, GamePanel panel, int tickMillis) {
+        this.frame = frame;
+        this.panel = panel;
+        this.tickNanos = tickMillis * 1_000_000L;
+    }
+
+    public void start() {
+        thread = new Thread(this, "game-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // 停止並等待執行緒結束，之後不會再有遊戲刻 (也不會再寫入重播或分數紀錄)
+    public void stop() {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void setTickMillis(int tickMillis) {
+        this.tickNanos = tickMillis * 1_000_000L;
+    }
+
+    public void setWarp(int warp) {
+        this.warp = warp;
+    }
+
+    @Override
+    public void run() {
+        frame.createBufferStrategy(2);
+        BufferStrategy strategy = frame.getBufferStrategy();
+        // GamePanel 在視窗中的位置 (無邊框視窗，啟動後不會改變)
+        Point origin = SwingUtilities.convertPoint(panel, 0, 0, frame);
+
+        long frameNanos = 1_000_000_000L / MAX_FPS;
+        long nextTick = System.nanoTime() + tickNanos;
+        long nextFrame = System.nanoTime();
+
+        while (running && frame.isDisplayable()) {
+            long now = System.nanoTime();
+
+            // 1. 固定時間步長推進模擬，落後時補跑 (全速時一直推進到下一幀的時間，遊戲沒有在進行時照常等待)
+            int warp = this.warp;
+            if (warp == 0) {
+                while (System.nanoTime() - nextFrame < 0 && panel.tick()) {
+                    // 繼續推進
+                }
+                now = System.nanoTime();
+                nextTick = now + tickNanos;
+            }
+            int steps = 0;
+            while (warp != 0 && now >= nextTick && steps < MAX_CATCH_UP) {
+                // 遊戲刻的抖動 (比預定時間晚了多久) 與 FPS 一起由效能面板每秒結算
+                panel.metrics.recordTickJitter(now - nextTick);
+                // 遊戲結束後的重新開始也由 tick() 在遊戲執行緒上處理
+                for (int i = 0; i < warp && panel.tick(); i++) {
+                    // 加速時同一個時間步長推進 warp 刻
+                }
+                nextTick += tickNanos;
+                steps++;
+            }
+            if (steps == MAX_CATCH_UP && now >= nextTick) {
+                nextTick = now + tickNanos;
+            }
+
+            // 2. 繪製插值後的畫面
+            if (now >= nextFrame) {
+                double alpha = 1.0 - (double) (nextTick - now) / tickNanos;
+                render(strategy, origin, Math.max(0.0, Math.min(1.0, alpha)));
+                nextFrame += frameNanos;
+                if (nextFrame < now) {
+                    nextFrame = now + frameNanos;
+                }
+            }
+
+            // 3. 睡到下一個遊戲刻或下一幀
+            long wait = Math.min(nextTick, nextFrame) - System.nanoTime();
+            if (wait > 1_000_000L) {
+                try {
+                    Thread.sleep(wait / 1_000_000L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void render(BufferStrategy strategy, Point origin, double alpha) {
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    g.translate(origin.x, origin.y);
+                    panel.renderActive(g, alpha);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+}
@@ -0,0 +1,542 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// 多蛇競技場：許多自動駕駛的蛇與多顆食物共用同一個棋盤 (無介面，不依賴 AWT/Swing)
+// 每一刻分為兩個階段：
+//  1. 決策：所有蛇平行地對同一份棋盤快照做決策，快照在決策期間不會被修改，結果依蛇的編號存放
+//  2. 提交：單一執行緒以固定規則同時結算所有移動 (撞牆、撞到身體、搶同一格)，並只更新快照中有變動的格子
+// 決策只讀取快照、亂數只在提交階段使用，因此結果與執行緒數量無關
+public class ArenaEngine {
+
+    // 快照中每一格的內容
+    static final byte EMPTY = 0;
+    static final byte FOOD = 1;
+    static final byte BODY = 2;
+    static final byte HEAD = 3;
+
+    // 每條蛇尋找食物時最多走訪的格數 (大棋盤上不必每條蛇都搜尋整個棋盤)
+    static final int SEARCH_LIMIT = 2048;
+    // 死亡後等待幾刻才重生
+    static final int RESPAWN_TICKS = 20;
+    // 重生時尋找空位的嘗試次數 (找不到時下一刻再試)
+    private static final int SPAWN_TRIES = 32;
+    // 每個平行決策工作單位負責的蛇數，固定大小讓切分方式與執行緒數量無關
+    private static final int CHUNK_SIZE = 8;
+
+    // 棋盤大小 (格數)
+    final int COLS;
+    final int ROWS;
+    final int GAME_UNITS;
+
+    // 所有的蛇與棋盤上維持的食物數量
+    final Snake[] snakes;
+    final int foodTarget;
+    // 目前的棋盤：owner[cell] 為佔用該格的蛇編號 + 1 (0 表示空格)，food[cell] 表示該格有食物
+    final int[] owner;
+    final boolean[] food;
+    int foodCount;
+    // 決策階段讀取的棋盤快照 (EMPTY/FOOD/BODY/HEAD)，只在提交階段更新
+    final byte[] snapshot;
+    // 每條蛇這一刻的決策 (依編號存放，平行寫入時不需要同步)
+    final char[] decisions;
+    // 提交階段偵測多條蛇搶同一格：claimStamp[cell] 等於目前的戳記時 claimCount 才有效
+    private final int[] claimStamp;
+    private final byte[] claimCount;
+    private int claimGeneration;
+    // 閒置的搜尋緩衝區：每個決策工作單位借用一份，用完歸還 (份數不超過同時決策的執行緒數)，
+    // 緩衝區屬於這個競技場，不會留在共用執行緒池的執行緒上
+    private final ConcurrentLinkedQueue<Search> idleSearches = new ConcurrentLinkedQueue<>();
+
+    // 隨機數生成器 (只在提交階段使用)
+    final Random random;
+    // 平行決策用的執行緒池 (為 null 時在目前的執行緒依序決策)
+    final ForkJoinPool pool;
+    // 效能統計 (為 null 時不計時)
+    PerfMetrics metrics;
+
+    // 統計
+    long ticks;
+    int deaths;
+    int foodEaten;
+
+    public ArenaEngine(int cols, int rows, int snakeCount, int foodTarget, long seed, ForkJoinPool pool) {
+        // 蛇以初始長度、水平向右的方式出生，前方還要留一格空位
+        if (cols <= SnakeEngine.INITIAL_LENGTH || rows < 1) {
+            throw new IllegalArgumentException("Arena board " + cols + "x" + rows + " is too small: it needs more than "
+                    + SnakeEngine.INITIAL_LENGTH + " columns and at least 1 row");
+        }
+        this.COLS = cols;
+        this.ROWS = rows;
+        this.GAME_UNITS = cols * rows;
+        this.snakes = new Snake[snakeCount];
+        for (int i = 0; i < snakeCount; i++) {
+            snakes[i] = new Snake(i);
+        }
+        this.foodTarget = foodTarget;
+        this.owner = new int[GAME_UNITS];
+        this.food = new boolean[GAME_UNITS];
+        this.snapshot = new byte[GAME_UNITS];
+        this.decisions = new char[snakeCount];
+        this.claimStamp = new int[GAME_UNITS];
+        this.claimCount = new byte[GAME_UNITS];
+        this.random = new Random(seed);
+        this.pool = pool;
+        reset(seed);
+    }
+
+    // 以指定的種子重新開始 (相同的種子、棋盤與蛇數會得到相同的過程)
+    public void reset(long seed) {
+        random.setSeed(seed);
+        Arrays.fill(owner, 0);
+        Arrays.fill(food, false);
+        foodCount = 0;
+        for (Snake snake : snakes) {
+            snake.alive = false;
+            snake.length = 0;
+            snake.score = 0;
+            spawn(snake);
+        }
+        refillFood();
+        rebuildSnapshot();
+        ticks = 0;
+        deaths = 0;
+        foodEaten = 0;
+    }
+
+    // 執行一個遊戲刻：平行決策，然後依序提交
+    public void step() {
+        long start = metrics != null ? System.nanoTime() : 0;
+        if (pool == null || snakes.length <= CHUNK_SIZE) {
+            decideRange(0, snakes.length);
+        } else {
+            pool.invoke(new DecisionRange(0, snakes.length));
+        }
+        long decided = metrics != null ? System.nanoTime() : 0;
+        commit();
+        long committed = metrics != null ? System.nanoTime() : 0;
+        refillFood();
+        if (metrics != null) {
+            metrics.recordTick(start, decided, committed, committed, System.nanoTime());
+        }
+        ticks++;
+    }
+
+    // 依序為一段編號的蛇做決策
+    private void decideRange(int from, int to) {
+        Search search = idleSearches.poll();
+        if (search == null) {
+            search = new Search(GAME_UNITS);
+        }
+        try {
+            for (int i = from; i < to; i++) {
+                Snake snake = snakes[i];
+                decisions[i] = snake.alive ? decide(snake, search) : snake.direction;
+            }
+        } finally {
+            idleSearches.offer(search);
+        }
+    }
+
+    // 單一條蛇的決策，只讀取快照：
+    // 以 BFS 找最近的食物，第一步避開緊鄰其他蛇頭的格子 (可能正面相撞)；
+    // 找不到食物時走向周圍空格最多的一步
+    char decide(Snake snake, Search search) {
+        int headCell = snake.ring[snake.head];
+        int generation = search.nextGeneration();
+        int[] stamp = search.stamp;
+        int[] queue = search.queue;
+        byte[] firstStep = search.firstStep;
+        stamp[headCell] = generation;
+
+        int queueTail = 0;
+        int fallback = -1;
+        int fallbackScore = -1;
+        // 先放入安全的第一步；只有在沒有安全的第一步時才考慮可能正面相撞的格子
+        for (int pass = 0; pass < 2 && queueTail == 0; pass++) {
+            for (int d = 0; d < 4; d++) {
+                int cell = neighbor(headCell, d);
+                if (cell < 0 || snapshot[cell] >= BODY || stamp[cell] == generation) {
+                    continue;
+                }
+                boolean risky = nearOtherHead(cell, headCell);
+                if (risky != (pass == 1)) {
+                    continue;
+                }
+                stamp[cell] = generation;
+                firstStep[cell] = (byte) d;
+                queue[queueTail++] = cell;
+                int score = freeNeighbors(cell);
+                if (score > fallbackScore) {
+                    fallbackScore = score;
+                    fallback = d;
+                }
+            }
+        }
+        if (queueTail == 0) {
+            // 無路可走，維持原方向
+            return snake.direction;
+        }
+
+        int queueHead = 0;
+        while (queueHead < queueTail && queueHead < SEARCH_LIMIT) {
+            int cell = queue[queueHead++];
+            if (snapshot[cell] == FOOD) {
+                return SnakeEngine.DIRECTIONS[firstStep[cell]];
+            }
+            for (int d = 0; d < 4; d++) {
+                int next = neighbor(cell, d);
+                if (next < 0 || snapshot[next] >= BODY || stamp[next] == generation) {
+                    continue;
+                }
+                stamp[next] = generation;
+                firstStep[next] = firstStep[cell];
+                queue[queueTail++] = next;
+            }
+        }
+        return SnakeEngine.DIRECTIONS[fallback];
+    }
+
+    // 提交階段：所有蛇同時移動
+    private void commit() {
+        int generation = ++claimGeneration;
+        // 1. 決定每條蛇的目標格並登記 (撞牆的蛇目標為 -1)
+        for (int i = 0; i < snakes.length; i++) {
+            Snake snake = snakes[i];
+            if (!snake.alive) {
+                continue;
+            }
+            snake.direction = decisions[i];
+            snake.target = neighbor(snake.ring[snake.head], SnakeEngine.directionIndex(snake.direction));
+            if (snake.target >= 0) {
+                int cell = snake.target;
+                if (claimStamp[cell] != generation) {
+                    claimStamp[cell] = generation;
+                    claimCount[cell] = 0;
+                }
+                if (claimCount[cell] < 2) {
+                    claimCount[cell]++;
+                }
+            }
+        }
+        // 2. 沒有在長大的蛇先釋放蛇尾，因此可以走進其他蛇同一刻離開的蛇尾
+        for (Snake snake : snakes) {
+            if (!snake.alive) {
+                continue;
+            }
+            if (snake.pendingGrowth > 0) {
+                snake.pendingGrowth--;
+            } else {
+                int cell = snake.popTail();
+                owner[cell] = 0;
+                snapshot[cell] = EMPTY;
+            }
+        }
+        // 3. 撞牆、撞到身體或與其他蛇搶同一格的蛇死亡 (先全部判定完再移動，結果與處理順序無關)
+        for (Snake snake : snakes) {
+            if (!snake.alive) {
+                continue;
+            }
+            int cell = snake.target;
+            snake.dying = cell < 0 || owner[cell] != 0 || claimCount[cell] > 1;
+        }
+        // 4. 存活的蛇移動蛇頭並吃食物
+        for (Snake snake : snakes) {
+            if (!snake.alive || snake.dying) {
+                continue;
+            }
+            int cell = snake.target;
+            snapshot[snake.ring[snake.head]] = BODY;
+            snake.pushHead(cell);
+            owner[cell] = snake.id + 1;
+            snapshot[cell] = HEAD;
+            if (food[cell]) {
+                food[cell] = false;
+                foodCount--;
+                snake.pendingGrowth++;
+                snake.score++;
+                foodEaten++;
+            }
+        }
+        // 5. 移除死亡的蛇，並讓倒數結束的蛇重生
+        for (Snake snake : snakes) {
+            if (snake.alive) {
+                if (snake.dying) {
+                    for (int i = 0; i < snake.length; i++) {
+                        owner[snake.segment(i)] = 0;
+                        snapshot[snake.segment(i)] = EMPTY;
+                    }
+                    snake.alive = false;
+                    snake.dying = false;
+                    snake.respawnIn = RESPAWN_TICKS;
+                    deaths++;
+                }
+            } else if (--snake.respawnIn <= 0) {
+                spawn(snake);
+            }
+        }
+    }
+
+    // 在隨機的空位放置一條初始長度、向右移動的蛇；找不到空位時下一刻再試
+    private void spawn(Snake snake) {
+        for (int attempt = 0; attempt < SPAWN_TRIES; attempt++) {
+            int x = SnakeEngine.INITIAL_LENGTH - 1 + random.nextInt(COLS - SnakeEngine.INITIAL_LENGTH);
+            int y = random.nextInt(ROWS);
+            int headCell = y * COLS + x;
+            boolean free = true;
+            // 蛇身與蛇頭前方一格都必須是空的
+            for (int i = -1; i < SnakeEngine.INITIAL_LENGTH && free; i++) {
+                int cell = headCell - i;
+                free = owner[cell] == 0 && !food[cell];
+            }
+            if (!free) {
+                continue;
+            }
+            snake.length = 0;
+            snake.pendingGrowth = 0;
+            for (int i = SnakeEngine.INITIAL_LENGTH - 1; i >= 0; i--) {
+                snake.pushHead(headCell - i);
+                owner[headCell - i] = snake.id + 1;
+                snapshot[headCell - i] = i == 0 ? HEAD : BODY;
+            }
+            snake.direction = 'R';
+            snake.score = 0;
+            snake.alive = true;
+            return;
+        }
+        snake.respawnIn = 1;
+    }
+
+    // 把食物補足到目標數量 (棋盤太擠時有嘗試次數上限，下一刻再補)
+    private void refillFood() {
+        for (int attempt = 0; foodCount < foodTarget && attempt < foodTarget * 4; attempt++) {
+            int cell = random.nextInt(GAME_UNITS);
+            if (owner[cell] == 0 && !food[cell]) {
+                food[cell] = true;
+                foodCount++;
+                snapshot[cell] = FOOD;
+            }
+        }
+    }
+
+    // 由目前的棋盤完整重建決策用的快照 (只在重新開始時使用，之後由提交階段逐格更新)
+    private void rebuildSnapshot() {
+        for (int cell = 0; cell < GAME_UNITS; cell++) {
+            snapshot[cell] = owner[cell] != 0 ? BODY : food[cell] ? FOOD : EMPTY;
+        }
+        for (Snake snake : snakes) {
+            if (snake.alive) {
+                snapshot[snake.ring[snake.head]] = HEAD;
+            }
+        }
+    }
+
+    // 指定方向的相鄰格，超出棋盤時回傳 -1
+    private int neighbor(int cell, int d) {
+        int x = cell % COLS + SnakeEngine.DX[d];
+        int y = cell / COLS + SnakeEngine.DY[d];
+        if (x < 0 || x >= COLS || y < 0 || y >= ROWS) {
+            return -1;
+        }
+        return y * COLS + x;
+    }
+
+    // 該格是否緊鄰其他蛇的蛇頭 (下一刻可能與對方搶同一格)
+    private boolean nearOtherHead(int cell, int ownHead) {
+        for (int d = 0; d < 4; d++) {
+            int next = neighbor(cell, d);
+            if (next >= 0 && next != ownHead && snapshot[next] == HEAD) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 該格周圍 (快照中) 可以走的格數
+    private int freeNeighbors(int cell) {
+        int count = 0;
+        for (int d = 0; d < 4; d++) {
+            int next = neighbor(cell, d);
+            if (next >= 0 && snapshot[next] < BODY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void setMetrics(PerfMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public int getCols() {
+        return COLS;
+    }
+
+    public int getRows() {
+        return ROWS;
+    }
+
+    public int getSnakeCount() {
+        return snakes.length;
+    }
+
+    public boolean isAlive(int snake) {
+        return snakes[snake].alive;
+    }
+
+    public int getHeadCell(int snake) {
+        return snakes[snake].ring[snakes[snake].head];
+    }
+
+    // 佔用該格的蛇編號，空格為 -1
+    public int getOwner(int cell) {
+        return owner[cell] - 1;
+    }
+
+    public boolean isFood(int cell) {
+        return food[cell];
+    }
+
+    public int getAliveCount() {
+        int alive = 0;
+        for (Snake snake : snakes) {
+            if (snake.alive) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+
+    // 所有存活的蛇的總長度
+    public int getTotalLength() {
+        int total = 0;
+        for (Snake snake : snakes) {
+            if (snake.alive) {
+                total += snake.length;
+            }
+        }
+        return total;
+    }
+
+    public int getBestScore() {
+        int best = 0;
+        for (Snake snake : snakes) {
+            best = Math.max(best, snake.score);
+        }
+        return best;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getDeaths() {
+        return deaths;
+    }
+
+    public int getFoodEaten() {
+        return foodEaten;
+    }
+
+    // 棋盤與分數的雜湊，用來確認不同執行緒數量下結果完全相同
+    public int checksum() {
+        int hash = Arrays.hashCode(owner);
+        for (Snake snake : snakes) {
+            hash = 31 * hash + snake.score;
+        }
+        return 31 * hash + Arrays.hashCode(food);
+    }
+
+    // 一條蛇：以環狀緩衝區儲存格子索引，容量為 2 的次方並在需要時加倍
+    static class Snake {
+        final int id;
+        int[] ring = new int[16];
+        // ring[head] 為蛇頭，往回數 length - 1 格為蛇尾
+        int head = -1;
+        int length;
+        int pendingGrowth;
+        boolean alive;
+        boolean dying;
+        int respawnIn;
+        char direction = 'R';
+        int score;
+        // 這一刻要前往的格子 (提交階段使用，撞牆時為 -1)
+        int target;
+
+        Snake(int id) {
+            this.id = id;
+        }
+
+        // 第 i 節 (0 為蛇頭)
+        int segment(int i) {
+            return ring[(head - i) & (ring.length - 1)];
+        }
+
+        void pushHead(int cell) {
+            if (length == ring.length) {
+                int[] grown = new int[ring.length * 2];
+                // 依蛇尾到蛇頭的順序搬到新陣列的開頭
+                for (int i = 0; i < length; i++) {
+                    grown[i] = segment(length - 1 - i);
+                }
+                ring = grown;
+                head = length - 1;
+            }
+            head = (head + 1) & (ring.length - 1);
+            ring[head] = cell;
+            length++;
+        }
+
+        int popTail() {
+            int cell = segment(length - 1);
+            length--;
+            return cell;
+        }
+    }
+
+    // 一個決策工作單位的 BFS 緩衝區 (以世代戳記代替每次清空 visited)
+    // 每次搜尋最多展開 SEARCH_LIMIT 格、每格最多加入 4 格，佇列不必與棋盤一樣大
+    static class Search {
+        final int[] stamp;
+        final int[] queue;
+        final byte[] firstStep;
+        private int generation;
+
+        Search(int units) {
+            stamp = new int[units];
+            queue = new int[Math.min(units, 4 + SEARCH_LIMIT * 4)];
+            firstStep = new byte[units];
+        }
+
+        int nextGeneration() {
+            if (++generation == 0) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+            return generation;
+        }
+    }
+
+    // 把蛇的編號區間遞迴切半，直到不超過 CHUNK_SIZE 後在目前的工作執行緒上決策
+    private class DecisionRange extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        DecisionRange(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new DecisionRange(from, mid), new DecisionRange(mid, to));
+                return;
+            }
+            decideRange(from, to);
+        }
+    }
+}
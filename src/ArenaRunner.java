@@ -0,0 +1,49 @@
+import java.util.concurrent.ForkJoinPool;
+
+// 競技場的無介面壓力測試：在大棋盤上讓大量的蛇跑固定刻數，回報吞吐量，
+// 並以單執行緒重跑一次確認結果與執行緒數量無關
+// 用法: java ArenaRunner [蛇數] [棋盤寬] [棋盤高] [刻數] [執行緒數] [種子]
+public class ArenaRunner {
+
+    public static void main(String[] args) {
+        int snakes = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int ticks = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 42L;
+
+        System.out.printf("%d snakes on %dx%d, %d ticks, seed %d%n", snakes, cols, rows, ticks, seed);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            int checksum = run(snakes, cols, rows, ticks, seed, pool, threads);
+            if (threads > 1) {
+                int sequential = run(snakes, cols, rows, ticks, seed, null, 1);
+                System.out.println(checksum == sequential ? "Deterministic across thread counts: OK"
+                        : "MISMATCH between " + threads + " threads and 1 thread");
+            }
+        } catch (IllegalArgumentException e) {
+            // 棋盤太小等無效的參數
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // 跑一次並印出結果，回傳最終的雜湊
+    static int run(int snakes, int cols, int rows, int ticks, long seed, ForkJoinPool pool, int threads) {
+        ArenaEngine arena = new ArenaEngine(cols, rows, snakes, snakes, seed, pool);
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            arena.step();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int checksum = arena.checksum();
+        System.out.printf("%2d thread(s): %.2f s, %.0f ticks/sec, %.0f snake-moves/sec, alive %d, deaths %d, "
+                        + "food eaten %d, best score %d, checksum %08x%n",
+                threads, seconds, ticks / seconds, (double) ticks * snakes / seconds, arena.getAliveCount(),
+                arena.getDeaths(), arena.getFoodEaten(), arena.getBestScore(), checksum);
+        return checksum;
+    }
+}
@@ -0,0 +1,34 @@
+// 所有可選用的自動駕駛策略，索引對應設定檔中的 Autopilot 值
+public class AutopilotStrategies {
+
+    public static final String[] NAMES = {"Greedy", "Pathfinding", "Hamiltonian", "Q-learning", "Lookahead"};
+
+    // 每次呼叫都建立新的實例 (策略可能帶有搜尋緩衝區，不可在執行緒間共用)
+    public static AutopilotStrategy create(int index) {
+        switch (index) {
+            case 1:
+                return new PathfindingStrategy();
+            case 2:
+                return new HamiltonianStrategy();
+            case 3: {
+                // 載入 QLearningTrainer 訓練出的策略，尚未訓練時退回貪婪策略
+                AutopilotStrategy strategy = QLearningStrategy.loadDefault();
+                return strategy != null ? strategy : new GreedyStrategy();
+            }
+            case 4:
+                return new LookaheadStrategy();
+            default:
+                return new GreedyStrategy();
+        }
+    }
+
+    // 依名稱 (不分大小寫) 找出索引，找不到時回傳 -1
+    public static int indexOf(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
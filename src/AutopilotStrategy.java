@@ -0,0 +1,19 @@
+// 自動駕駛策略：每一刻根據引擎目前的狀態決定下一步的方向
+public interface AutopilotStrategy {
+
+    // 回傳下一步的方向 ('U', 'D', 'L', 'R')，不可直接修改引擎狀態
+    char decide(SnakeEngine engine);
+
+    // 顯示在設定視窗與統計輸出中的名稱
+    String getName();
+
+    // 決策是否只取決於 DecisionCache.key 的內容，也就是：
+    //   1. 以蛇頭為中心、邊長 2 * DecisionCache.RADIUS + 1 的視窗中每一格是否被佔用 (棋盤外算被佔用)
+    //   2. 目前的方向
+    //   3. 食物相對蛇頭在兩個座標軸上的正負號 (不含距離)
+    // 不可讀取視窗外的格子、蛇長、分數、刻數、亂數或決策之間會改變的內部狀態
+    // 是的話相同的鍵永遠做出相同的決策，可以放在 DecisionCache 後面 (預設為否)
+    default boolean isLocalWindowOnly() {
+        return false;
+    }
+}
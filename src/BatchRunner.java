@@ -0,0 +1,96 @@
+// 批次執行器：不開視窗，以 CPU 能跑的最快速度連續進行 N 場遊戲
+// 用法: java BatchRunner [場數] [寬(格)] [高(格)] [種子] [策略名稱] [cache]
+// 最後加上 cache 時，只看局部視窗的策略 (AutopilotStrategy.isLocalWindowOnly) 透過 DecisionCache 決策，
+// 並以同一個種子直接決策再玩一次同樣的遊戲 (逐場交替)，輸出快取的命中率與兩者實際花費的時間
+public class BatchRunner {
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : GameSettings.SCREEN_SIZES[0][0] / 25;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : GameSettings.SCREEN_SIZES[0][1] / 25;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+        int strategyIndex = args.length > 4 ? AutopilotStrategies.indexOf(args[4]) : 0;
+        if (strategyIndex < 0) {
+            System.err.println("Unknown strategy: " + args[4]);
+            return;
+        }
+
+        boolean cache = args.length > 5 && args[5].equalsIgnoreCase("cache");
+
+        SnakeEngine engine = new SnakeEngine(cols, rows, seed);
+        AutopilotStrategy strategy = AutopilotStrategies.create(strategyIndex);
+        // 使用快取時，另一個引擎以相同的種子直接決策 (策略實例不能共用)，量測快取實際省下或多花的時間
+        SnakeEngine directEngine = null;
+        if (cache) {
+            AutopilotStrategy cached = DecisionCache.wrap(strategy);
+            if (cached != strategy) {
+                directEngine = new SnakeEngine(cols, rows, seed);
+                directEngine.setStrategy(AutopilotStrategies.create(strategyIndex));
+                strategy = cached;
+            }
+        }
+        engine.setStrategy(strategy);
+
+        long totalTicks = 0;
+        long totalScore = 0;
+        int bestScore = 0;
+        int wins = 0;
+        long nanos = 0;
+        long directNanos = 0;
+        for (int g = 0; g < games; g++) {
+            long start = System.nanoTime();
+            engine.reset();
+            playGame(engine);
+            nanos += System.nanoTime() - start;
+            if (directEngine != null) {
+                long directStart = System.nanoTime();
+                directEngine.reset();
+                playGame(directEngine);
+                directNanos += System.nanoTime() - directStart;
+            }
+            totalTicks += engine.getTicks();
+            totalScore += engine.getScore();
+            bestScore = Math.max(bestScore, engine.getScore());
+            if (engine.isWon()) {
+                wins++;
+            }
+        }
+        double seconds = nanos / 1e9;
+
+        System.out.printf("board %dx%d, strategy %s, %d games in %.3f s%n", cols, rows, strategy.getName(), games, seconds);
+        System.out.printf("games/sec: %.1f%n", games / seconds);
+        System.out.printf("ticks/sec: %.0f%n", totalTicks / seconds);
+        System.out.printf("avg score: %.2f, best score: %d, wins: %d%n", (double) totalScore / games, bestScore, wins);
+        if (strategy instanceof DecisionCache) {
+            DecisionCache decisions = (DecisionCache) strategy;
+            System.out.printf("decision cache: hit rate %.1f%% (%,d hits, %,d misses, %,d evictions, %,d/%,d entries)%n",
+                    decisions.getHitRate() * 100, decisions.getHits(), decisions.getMisses(), decisions.getEvictions(),
+                    decisions.getSize(), decisions.getCapacity());
+            System.out.printf("decision cache: same games direct %.3f s, cached %.3f s, %s %.3f s%n",
+                    directNanos / 1e9, seconds, directNanos >= nanos ? "saved" : "lost", Math.abs(directNanos - nanos) / 1e9);
+        } else if (cache) {
+            System.out.printf("decision cache: not used (%s does not decide from the local window only)%n", strategy.getName());
+        }
+        if (strategy instanceof PathfindingStrategy) {
+            PathfindingStrategy pathfinding = (PathfindingStrategy) strategy;
+            System.out.printf("search time per tick: avg %.1f us, max %.1f us%n",
+                    pathfinding.getAverageSearchNanos() / 1e3, pathfinding.getMaxSearchNanos() / 1e3);
+        }
+        if (strategy instanceof LookaheadStrategy) {
+            LookaheadStrategy lookahead = (LookaheadStrategy) strategy;
+            System.out.printf("lookahead time per tick: avg %.1f us, max %.1f us%n",
+                    lookahead.getAverageSearchNanos() / 1e3, lookahead.getMaxSearchNanos() / 1e3);
+        }
+    }
+
+    // 把目前這場遊戲玩到結束
+    // 避免自動駕駛原地繞圈永不結束：太久沒吃到食物 (超過棋盤格數的 4 倍刻數) 就視為結束
+    public static void playGame(SnakeEngine engine) {
+        long starveLimit = (long) engine.getGameUnits() * 4;
+        while (engine.step()) {
+            if (engine.getTicksSinceFood() > starveLimit) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+import java.util.Arrays;
+
+// 以位元壓縮的棋盤：每一格 1 bit (1 表示被佔用)，每一列從新的 long 開始 (列尾多出的位元不使用)
+// 格子 (x, y) 在 bits[y * wordsPerRow + x / 64] 的第 x % 64 個位元，x 加一即左移一位
+// 空格判斷只需一次位元測試；洪水填充與可到達面積以整個 long 的移位與 AND 一次處理 64 格，
+// 不需要逐格呼叫 isCollision；快照把各列緊密相接，只有 byte[] 佔用表的 1/8 大小
+public class Bitboard {
+
+    final int cols;
+    final int rows;
+    final int wordsPerRow;
+    // 每一列最後一個 long 中有效的位元
+    final long lastWordMask;
+    final long[] bits;
+    // 洪水填充的結果 (重複使用，不在每次填充時配置)
+    private final long[] reach;
+
+    public Bitboard(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.wordsPerRow = (cols + 63) / 64;
+        this.lastWordMask = cols % 64 == 0 ? -1L : (1L << (cols % 64)) - 1;
+        this.bits = new long[wordsPerRow * rows];
+        this.reach = new long[bits.length];
+    }
+
+    // 從引擎複製目前的蛇身 (只走訪蛇身，與棋盤大小無關)
+    public void copyFrom(SnakeEngine engine) {
+        Arrays.fill(bits, 0);
+        for (int i = 0; i < engine.getLength(); i++) {
+            set(engine.getSegmentCell(i));
+        }
+    }
+
+    // 從蛇身的格子索引重建 (例如 RenderFrame 的快照)
+    public void load(int[] cells, int count) {
+        Arrays.fill(bits, 0);
+        for (int i = 0; i < count; i++) {
+            set(cells[i]);
+        }
+    }
+
+    public void set(int cell) {
+        bits[index(cell)] |= 1L << (cell % cols);
+    }
+
+    public void clear(int cell) {
+        bits[index(cell)] &= ~(1L << (cell % cols));
+    }
+
+    public boolean isOccupied(int cell) {
+        return (bits[index(cell)] & (1L << (cell % cols))) != 0;
+    }
+
+    // 棋盤內的 (x, y) 是否被佔用 (不檢查範圍，也不需要除法)
+    public boolean isOccupied(int x, int y) {
+        return (bits[y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    // 與 SnakeEngine.isCollision 相同的問題：棋盤外或被佔用
+    public boolean isCollision(int x, int y) {
+        if (x < 0 || x >= cols || y < 0 || y >= rows) {
+            return true;
+        }
+        return isOccupied(x, y);
+    }
+
+    // 四個相鄰格中的空格，以 SnakeEngine.DIRECTIONS 的順序編成 4 bits
+    public int freeNeighbors(int x, int y) {
+        int mask = 0;
+        for (int d = 0; d < 4; d++) {
+            if (!isCollision(x + SnakeEngine.DX[d], y + SnakeEngine.DY[d])) {
+                mask |= 1 << d;
+            }
+        }
+        return mask;
+    }
+
+    // 從 start 出發 (start 本身須為空格) 能到達的空格數
+    public int reachableArea(int start) {
+        fill(start);
+        int count = 0;
+        for (long word : reach) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // 從 start 能否到達 target (target 本身可以是被佔用的格子，例如即將讓出的蛇尾)
+    public boolean isReachable(int start, int target) {
+        fill(start);
+        int x = target % cols;
+        int y = target / cols;
+        for (int d = 0; d < 4; d++) {
+            int nx = x + SnakeEngine.DX[d];
+            int ny = y + SnakeEngine.DY[d];
+            if (nx >= 0 && nx < cols && ny >= 0 && ny < rows
+                    && (reach[ny * wordsPerRow + (nx >>> 6)] & (1L << nx)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 複製一份快照：各列的位元緊密相接 (不含列尾未使用的位元)，每格剛好 1 bit
+    public long[] snapshot() {
+        long[] dense = new long[(cols * rows + 63) / 64];
+        int position = 0;
+        for (int y = 0; y < rows; y++) {
+            int base = y * wordsPerRow;
+            for (int w = 0; w < wordsPerRow; w++) {
+                int count = w == wordsPerRow - 1 ? cols - w * 64 : 64;
+                int word = position >>> 6;
+                int offset = position & 63;
+                dense[word] |= bits[base + w] << offset;
+                if (offset != 0 && offset + count > 64) {
+                    dense[word + 1] |= bits[base + w] >>> (64 - offset);
+                }
+                position += count;
+            }
+        }
+        return dense;
+    }
+
+    // 從 snapshot() 的快照還原
+    public void restore(long[] dense) {
+        int position = 0;
+        for (int y = 0; y < rows; y++) {
+            int base = y * wordsPerRow;
+            for (int w = 0; w < wordsPerRow; w++) {
+                int count = w == wordsPerRow - 1 ? cols - w * 64 : 64;
+                int word = position >>> 6;
+                int offset = position & 63;
+                long value = dense[word] >>> offset;
+                if (offset != 0 && offset + count > 64) {
+                    value |= dense[word + 1] << (64 - offset);
+                }
+                bits[base + w] = value & wordMask(w);
+                position += count;
+            }
+        }
+    }
+
+    // 快照的大小 (位元組)
+    public int snapshotBytes() {
+        return (cols * rows + 63) / 64 * Long.BYTES;
+    }
+
+    // 洪水填充：重複「由上往下、再由下往上」掃描每一列，直到沒有任何變化
+    // 每一列先從相鄰列垂直擴散 (整個 long 一次 AND)，再在列內沿著連續的空格水平擴散
+    private void fill(int start) {
+        Arrays.fill(reach, 0);
+        if (isOccupied(start)) {
+            return;
+        }
+        reach[index(start)] = 1L << (start % cols);
+        int startRow = start / cols;
+        fillRow(startRow);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int y = 1; y < rows; y++) {
+                changed |= spill(y - 1, y);
+            }
+            for (int y = rows - 2; y >= 0; y--) {
+                changed |= spill(y + 1, y);
+            }
+        }
+    }
+
+    // 把 from 列已到達的格子擴散到 to 列，有新到達的格子時回傳 true
+    private boolean spill(int from, int to) {
+        int fromBase = from * wordsPerRow;
+        int toBase = to * wordsPerRow;
+        boolean grew = false;
+        for (int w = 0; w < wordsPerRow; w++) {
+            long added = reach[fromBase + w] & ~bits[toBase + w] & ~reach[toBase + w] & wordMask(w);
+            if (added != 0) {
+                reach[toBase + w] |= added;
+                grew = true;
+            }
+        }
+        if (grew) {
+            fillRow(to);
+        }
+        return grew;
+    }
+
+    // 在一列之中沿著連續的空格水平擴散：先往右 (高位元，跨越 long 時進位到下一個)，再往左
+    private void fillRow(int y) {
+        int base = y * wordsPerRow;
+        long carry = 0;
+        for (int w = 0; w < wordsPerRow; w++) {
+            long free = ~bits[base + w] & wordMask(w);
+            long g = fillUp(reach[base + w] | (carry & free), free);
+            reach[base + w] = g;
+            carry = g < 0 ? 1L : 0L;
+        }
+        carry = 0;
+        for (int w = wordsPerRow - 1; w >= 0; w--) {
+            long free = ~bits[base + w] & wordMask(w);
+            long g = fillDown(reach[base + w] | (carry & free), free);
+            reach[base + w] = g;
+            carry = (g & 1L) != 0 ? Long.MIN_VALUE : 0L;
+        }
+    }
+
+    // Kogge-Stone 受阻填充：g 沿著 p 中連續的 1 往高位元擴散 (6 次移位即可跨越 64 位元)
+    private static long fillUp(long g, long p) {
+        g |= p & (g << 1);
+        p &= p << 1;
+        g |= p & (g << 2);
+        p &= p << 2;
+        g |= p & (g << 4);
+        p &= p << 4;
+        g |= p & (g << 8);
+        p &= p << 8;
+        g |= p & (g << 16);
+        p &= p << 16;
+        g |= p & (g << 32);
+        return g;
+    }
+
+    // 同上，往低位元擴散
+    private static long fillDown(long g, long p) {
+        g |= p & (g >>> 1);
+        p &= p >>> 1;
+        g |= p & (g >>> 2);
+        p &= p >>> 2;
+        g |= p & (g >>> 4);
+        p &= p >>> 4;
+        g |= p & (g >>> 8);
+        p &= p >>> 8;
+        g |= p & (g >>> 16);
+        p &= p >>> 16;
+        g |= p & (g >>> 32);
+        return g;
+    }
+
+    private long wordMask(int w) {
+        return w == wordsPerRow - 1 ? lastWordMask : -1L;
+    }
+
+    private int index(int cell) {
+        return (cell / cols) * wordsPerRow + (cell % cols) / 64;
+    }
+}
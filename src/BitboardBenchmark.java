@@ -0,0 +1,205 @@
+import java.util.Random;
+
+// 微基準測試：比較位元棋盤 (Bitboard) 與逐格檢查的碰撞查詢與洪水填充吞吐量，以及棋盤快照的大小
+// 逐格檢查包含原本 ArrayList<Point> 的 isCollision (LegacySnakeModel) 與引擎的 byte[] 佔用表
+// 開始前先在實際的遊戲中確認位元棋盤的可到達面積與 BFS 完全相同
+// 用法: java BitboardBenchmark [每項測量毫秒數]
+public class BitboardBenchmark {
+
+    static final int[] LENGTHS = {10, 500, 3000};
+    // 只比較引擎與位元棋盤的大棋盤 (ArrayList<Point> 在這個大小下太慢)
+    static final int LARGE_SIZE = 1000;
+
+    // BFS 的緩衝區 (依棋盤大小重複使用)
+    private static int[] queue = new int[0];
+    private static boolean[] visited = new boolean[0];
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+
+        verify();
+
+        int cols = BoardBenchmark.COLS;
+        int rows = BoardBenchmark.ROWS;
+        System.out.printf("board %dx%d (%d cells)%n", cols, rows, cols * rows);
+        System.out.printf("%8s %-13s %16s %16s %16s%n", "length", "", "ArrayList<Point>", "byte[] engine", "Bitboard");
+        for (int length : LENGTHS) {
+            SnakeEngine engine = BoardBenchmark.newEngine(length);
+            LegacySnakeModel legacy = new LegacySnakeModel(cols, rows);
+            legacy.copyFrom(engine);
+            Bitboard board = new Bitboard(cols, rows);
+            board.copyFrom(engine);
+            int start = freeStart(engine);
+
+            // 暖機，讓 JIT 編譯完成
+            for (int i = 0; i < 2; i++) {
+                long warmup = i == 0 ? millis / 4 : millis;
+                double[] queries = {
+                        collisionRate(q -> legacy.isCollision(q % cols, q / cols), cols, rows, warmup),
+                        collisionRate(q -> engine.isCollision(q % cols, q / cols), cols, rows, warmup),
+                        collisionRate(q -> board.isCollision(q % cols, q / cols), cols, rows, warmup)};
+                double[] fills = {
+                        fillRate(() -> bfs(legacy::isCollision, engine.getHeadCell(), cols, rows, start), warmup),
+                        fillRate(() -> bfs(engine::isCollision, engine.getHeadCell(), cols, rows, start), warmup),
+                        fillRate(() -> board.reachableArea(start), warmup)};
+                if (i == 1) {
+                    System.out.printf("%8d %-13s %16.0f %16.0f %16.0f%n", length, "queries/s", queries[0], queries[1], queries[2]);
+                    System.out.printf("%8s %-13s %16.0f %16.0f %16.0f  (%.1fx vs byte[])%n", "", "fills/s",
+                            fills[0], fills[1], fills[2], fills[2] / fills[1]);
+                }
+            }
+        }
+
+        // 大棋盤：短的蛇，可到達面積幾乎是整個棋盤
+        SnakeEngine large = new SnakeEngine(LARGE_SIZE, LARGE_SIZE, 1L);
+        Bitboard largeBoard = new Bitboard(LARGE_SIZE, LARGE_SIZE);
+        largeBoard.copyFrom(large);
+        int start = freeStart(large);
+        fillRate(() -> bfs(large::isCollision, large.getHeadCell(), LARGE_SIZE, LARGE_SIZE, start), millis / 4);
+        fillRate(() -> largeBoard.reachableArea(start), millis / 4);
+        double engineFills = fillRate(() -> bfs(large::isCollision, large.getHeadCell(), LARGE_SIZE, LARGE_SIZE, start), millis);
+        double boardFills = fillRate(() -> largeBoard.reachableArea(start), millis);
+        System.out.printf("board %dx%d: byte[] engine %.1f fills/s, Bitboard %.1f fills/s (%.1fx)%n",
+                LARGE_SIZE, LARGE_SIZE, engineFills, boardFills, boardFills / engineFills);
+
+        // 快照大小：引擎的 byte[] 佔用表 (每格 1 byte) 與位元棋盤 (每格 1 bit)
+        System.out.println("snapshot size:");
+        for (int[] size : GameSettings.BOARD_SIZES) {
+            int c = size[0] == 0 ? cols : size[0];
+            int r = size[1] == 0 ? rows : size[1];
+            Bitboard board = new Bitboard(c, r);
+            System.out.printf("  %4dx%-4d byte[] %,10d bytes, Bitboard %,9d bytes (%.1fx smaller)%n",
+                    c, r, c * r, board.snapshotBytes(), (double) c * r / board.snapshotBytes());
+        }
+    }
+
+    // 在實際的遊戲中逐刻比較：可到達面積與 BFS 相同、快照還原後與原本相同
+    static void verify() {
+        SnakeEngine engine = new SnakeEngine(37, 23, 7L);
+        engine.setStrategy(new LookaheadStrategy());
+        Bitboard board = new Bitboard(engine.getCols(), engine.getRows());
+        Bitboard restored = new Bitboard(engine.getCols(), engine.getRows());
+        long checks = 0;
+        for (int game = 0; game < 20; game++) {
+            engine.reset(game);
+            while (engine.step() && engine.getTicksSinceFood() < 4L * engine.getGameUnits()) {
+                board.copyFrom(engine);
+                restored.restore(board.snapshot());
+                if (!java.util.Arrays.equals(board.bits, restored.bits)) {
+                    throw new IllegalStateException("snapshot round trip differs at tick " + engine.getTicks());
+                }
+                for (int d = 0; d < 4; d++) {
+                    int x = engine.getHeadX() + SnakeEngine.DX[d];
+                    int y = engine.getHeadY() + SnakeEngine.DY[d];
+                    if (engine.isCollision(x, y)) {
+                        continue;
+                    }
+                    int cell = y * engine.getCols() + x;
+                    int expected = bfs(engine::isCollision, engine.getHeadCell(), engine.getCols(), engine.getRows(), cell);
+                    if (board.reachableArea(cell) != expected) {
+                        throw new IllegalStateException("flood fill differs from BFS at tick " + engine.getTicks());
+                    }
+                    checks++;
+                }
+            }
+        }
+        System.out.printf("Flood fill matches BFS in %,d positions, snapshots round-trip: OK%n", checks);
+    }
+
+    // 逐格檢查的 BFS (蛇頭本身也視為障礙)，回傳可到達的空格數
+    static int bfs(CollisionCheck check, int headCell, int cols, int rows, int start) {
+        if (queue.length != cols * rows) {
+            queue = new int[cols * rows];
+            visited = new boolean[cols * rows];
+        }
+        int read = 0;
+        int write = 0;
+        visited[start] = true;
+        queue[write++] = start;
+        while (read < write) {
+            int cell = queue[read++];
+            int x = cell % cols;
+            int y = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + SnakeEngine.DX[d];
+                int ny = y + SnakeEngine.DY[d];
+                int next = ny * cols + nx;
+                if (!check.isCollision(nx, ny) && next != headCell && !visited[next]) {
+                    visited[next] = true;
+                    queue[write++] = next;
+                }
+            }
+        }
+        // 只清除走訪過的格子，下一次不需要清除整個陣列
+        for (int i = 0; i < write; i++) {
+            visited[queue[i]] = false;
+        }
+        return write;
+    }
+
+    interface CollisionCheck {
+        boolean isCollision(int x, int y);
+    }
+
+    interface QueryCheck {
+        boolean isCollision(int query);
+    }
+
+    // 找一個空格當作洪水填充的起點 (優先使用蛇頭旁邊的空格)
+    static int freeStart(SnakeEngine engine) {
+        for (int d = 0; d < 4; d++) {
+            int x = engine.getHeadX() + SnakeEngine.DX[d];
+            int y = engine.getHeadY() + SnakeEngine.DY[d];
+            if (!engine.isCollision(x, y)) {
+                return y * engine.getCols() + x;
+            }
+        }
+        for (int cell = 0; cell < engine.getGameUnits(); cell++) {
+            if (engine.getOccupancy(cell) == 0) {
+                return cell;
+            }
+        }
+        throw new IllegalStateException("board is full");
+    }
+
+    // 隨機格子的碰撞查詢，每秒次數
+    static double collisionRate(QueryCheck check, int cols, int rows, long millis) {
+        Random random = new Random(1);
+        int[] queries = new int[4096];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = random.nextInt(rows) * cols + random.nextInt(cols);
+        }
+        long count = 0;
+        int hits = 0;
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        long start = System.nanoTime();
+        do {
+            for (int query : queries) {
+                if (check.isCollision(query)) {
+                    hits++;
+                }
+            }
+            count += queries.length;
+        } while (System.nanoTime() < deadline);
+        if (hits < 0) {
+            System.out.println(hits);
+        }
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // 洪水填充每秒次數
+    static double fillRate(java.util.function.IntSupplier fill, long millis) {
+        long count = 0;
+        long area = 0;
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        long start = System.nanoTime();
+        do {
+            area += fill.getAsInt();
+            count++;
+        } while (System.nanoTime() < deadline);
+        if (area < 0) {
+            System.out.println(area);
+        }
+        return count / ((System.nanoTime() - start) / 1e9);
+    }
+}
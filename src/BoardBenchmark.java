@@ -0,0 +1,105 @@
+// 微基準測試：比較舊的 ArrayList<Point> 蛇身與環狀緩衝區引擎在不同蛇長下的 ticks/sec
+// 用法: java BoardBenchmark [每項測量毫秒數]
+public class BoardBenchmark {
+
+    static final int COLS = GameSettings.SCREEN_SIZES[4][0] / 25; // 1920x1080 => 76x43
+    static final int ROWS = GameSettings.SCREEN_SIZES[4][1] / 25;
+    static final int[] LENGTHS = {10, 500, 3000};
+
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+
+        System.out.printf("board %dx%d (%d cells)%n", COLS, ROWS, COLS * ROWS);
+        System.out.printf("%8s %18s %18s %8s%n", "length", "ArrayList ticks/s", "ring ticks/s", "speedup");
+        for (int length : LENGTHS) {
+            SnakeEngine engine = newEngine(length);
+            LegacySnakeModel legacy = new LegacySnakeModel(COLS, ROWS);
+            legacy.copyFrom(engine);
+
+            // 暖機，讓 JIT 編譯完成
+            runLegacy(legacy, millis / 4);
+            runEngine(engine, millis / 4);
+
+            double legacyRate = runLegacy(legacy, millis);
+            double engineRate = runEngine(engine, millis);
+            System.out.printf("%8d %18.0f %18.0f %7.1fx%n", length, legacyRate, engineRate, engineRate / legacyRate);
+        }
+    }
+
+    // 建立一條沿著環狀路線排好的蛇，食物放在棋盤外讓蛇不會長大
+    static SnakeEngine newEngine(int length) {
+        SnakeEngine engine = new SnakeEngine(COLS, ROWS, 1L);
+        int[] cells = new int[length];
+        int x = 0;
+        int y = 0;
+        // 沿著路線走 length 步，最後一格為蛇頭
+        for (int i = length - 1; i >= 0; i--) {
+            cells[i] = y * COLS + x;
+            switch (cycleDirection(x, y)) {
+                case 'U': y--; break;
+                case 'D': y++; break;
+                case 'L': x--; break;
+                case 'R': x++; break;
+            }
+        }
+        engine.loadBody(cells, length);
+        engine.foodX = -1;
+        engine.foodY = -1;
+        return engine;
+    }
+
+    static double runEngine(SnakeEngine engine, long millis) {
+        long ticks = 0;
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        long start = System.nanoTime();
+        do {
+            for (int i = 0; i < 1000; i++) {
+                engine.setDirection(cycleDirection(engine.getHeadX(), engine.getHeadY()));
+                engine.move();
+                engine.checkCollisions();
+                engine.checkFood();
+            }
+            ticks += 1000;
+        } while (System.nanoTime() < deadline);
+        check(engine.isRunning());
+        return ticks / ((System.nanoTime() - start) / 1e9);
+    }
+
+    static double runLegacy(LegacySnakeModel legacy, long millis) {
+        long ticks = 0;
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        long start = System.nanoTime();
+        do {
+            for (int i = 0; i < 1000; i++) {
+                legacy.direction = cycleDirection(legacy.snakeBody.get(0).x, legacy.snakeBody.get(0).y);
+                legacy.move();
+                legacy.checkCollisions();
+                legacy.checkFood();
+            }
+            ticks += 1000;
+        } while (System.nanoTime() < deadline);
+        check(legacy.running);
+        return ticks / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // 覆蓋整個棋盤的環狀路線 (寬度需為偶數)：第 0 列向左走回起點，
+    // 第 0 行往下，其餘各行上下蛇行
+    static char cycleDirection(int x, int y) {
+        if (y == 0 && x > 0) {
+            return 'L';
+        }
+        if (x == 0) {
+            return y < ROWS - 1 ? 'D' : 'R';
+        }
+        if (x % 2 == 1) {
+            return y > 1 || x == COLS - 1 ? 'U' : 'R';
+        }
+        return y < ROWS - 1 ? 'D' : 'R';
+    }
+
+    private static void check(boolean ok) {
+        if (!ok) {
+            throw new IllegalStateException("snake died during benchmark");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import java.util.Random;
+
+// 隨機差異驗證：以相同的操作同時驅動引擎 (佔用格) 與舊的 ArrayList<Point> 實作，
+// 比對 isCollision、makeDecision、checkCollisions 與蛇身，任何不一致都會回報種子與刻數
+// 用法: java CollisionDiffCheck [場數] [種子]
+public class CollisionDiffCheck {
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+
+        Random random = new Random(seed);
+        long totalTicks = 0;
+        int[] deaths = new int[4];
+        for (int g = 0; g < games; g++) {
+            long gameSeed = random.nextLong();
+            // 棋盤大小也隨機，包含很小的棋盤以便製造撞到自己的情況
+            int cols = 4 + random.nextInt(40);
+            int rows = 4 + random.nextInt(30);
+            SnakeEngine engine = new SnakeEngine(cols, rows, gameSeed);
+            long ticks = runGame(engine, gameSeed, random.nextDouble() * 0.3);
+            if (ticks < 0) {
+                System.exit(1);
+            }
+            totalTicks += ticks;
+            deaths[engine.getDeathCause()]++;
+        }
+        System.out.printf("OK: %d games, %d ticks, no differences%n", games, totalTicks);
+        System.out.printf("deaths: wall=%d, self=%d, win=%d, none=%d%n", deaths[SnakeEngine.CAUSE_WALL],
+                deaths[SnakeEngine.CAUSE_SELF], deaths[SnakeEngine.CAUSE_WIN], deaths[SnakeEngine.CAUSE_NONE]);
+    }
+
+    // 回傳執行的刻數；發現差異時回傳 -1
+    static long runGame(SnakeEngine engine, long seed, double mistakeRate) {
+        int cols = engine.getCols();
+        int rows = engine.getRows();
+        LegacySnakeModel legacy = new LegacySnakeModel(cols, rows);
+        legacy.copyFrom(engine);
+        Random random = new Random(seed ^ 0x5DEECE66DL);
+
+        long tick = 0;
+        while (engine.isRunning() && tick < 20_000) {
+            // 1. 隨機抽查格子 (含棋盤外) 的碰撞結果
+            for (int k = 0; k < 8; k++) {
+                int x = random.nextInt(cols + 2) - 1;
+                int y = random.nextInt(rows + 2) - 1;
+                if (k < 4) {
+                    // 一半的抽查集中在蛇頭周圍
+                    x = engine.getHeadX() + (k == 0 ? 1 : k == 1 ? -1 : 0);
+                    y = engine.getHeadY() + (k == 2 ? 1 : k == 3 ? -1 : 0);
+                }
+                if (engine.isCollision(x, y) != legacy.isCollision(x, y)) {
+                    return fail(seed, tick, "isCollision(" + x + "," + y + ")");
+                }
+            }
+
+            // 2. 決策結果必須相同，偶爾故意亂轉以製造撞到自己的情況
+            engine.makeDecision();
+            legacy.makeDecision();
+            if (engine.getDirection() != legacy.direction) {
+                return fail(seed, tick, "makeDecision");
+            }
+            if (random.nextDouble() < mistakeRate) {
+                char turn = "UDLR".charAt(random.nextInt(4));
+                if (turn != SnakeEngine.opposite(engine.getDirection())) {
+                    engine.setDirection(turn);
+                    legacy.direction = turn;
+                }
+            }
+
+            // 3. 移動並檢查碰撞
+            engine.move();
+            legacy.move();
+            engine.checkCollisions();
+            legacy.checkCollisions();
+            if (engine.isRunning() != legacy.running) {
+                return fail(seed, tick, "checkCollisions");
+            }
+            if (!engine.isRunning()) {
+                break;
+            }
+
+            // 4. 吃食物，食物位置以引擎為準
+            int scoreBefore = engine.getScore();
+            engine.checkFood();
+            boolean ate = legacy.checkFood();
+            if (ate != (engine.getScore() != scoreBefore)) {
+                return fail(seed, tick, "checkFood");
+            }
+            legacy.food.setLocation(engine.getFoodX(), engine.getFoodY());
+
+            // 5. 蛇身必須一致 (舊實作長大時會多一個與蛇尾重疊的節點)
+            if (legacy.snakeBody.size() != engine.getLength() + engine.pendingGrowth) {
+                return fail(seed, tick, "length");
+            }
+            for (int i = 0; i < engine.getLength(); i++) {
+                if (legacy.snakeBody.get(i).x != engine.getSegmentX(i) || legacy.snakeBody.get(i).y != engine.getSegmentY(i)) {
+                    return fail(seed, tick, "segment " + i);
+                }
+            }
+            tick++;
+        }
+        return tick;
+    }
+
+    private static long fail(long seed, long tick, String what) {
+        System.err.printf("MISMATCH in %s (seed=%d, tick=%d)%n", what, seed, tick);
+        return -1;
+    }
+}
@@ -0,0 +1,199 @@
+import java.util.Arrays;
+
+// 決策快取：放在自動駕駛策略前面的記憶化層
+// 鍵由蛇頭周圍 5x5 的局部視窗 (每格是否會碰撞，含牆壁)、食物的相對方向與目前的方向組成 (31 bits)，
+// 存在固定大小、開放定址 (線性探測) 的基本型別表格中，表格滿了以時鐘 (second chance) 演算法淘汰
+// 只有決策完全由這個鍵決定的策略 (AutopilotStrategy.isLocalWindowOnly) 才適合使用，
+// 命中時回傳的決策與重新計算的完全相同，同一個種子的遊戲與不使用快取時一模一樣
+// 與策略本身相同，每個實例只能用於一個引擎
+public class DecisionCache implements AutopilotStrategy {
+
+    // 視窗半徑 (5x5)
+    public static final int RADIUS = 2;
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+    // 表格最多使用的比例 (超過時先淘汰一筆再插入，線性探測的鏈不會太長)
+    private static final int MAX_LOAD_PERCENT = 75;
+    private static final int EMPTY = -1;
+
+    private final AutopilotStrategy delegate;
+    // 鍵、決策 (方向索引) 與時鐘的參考位元，索引相同的三格是同一筆
+    private final int[] keys;
+    private final byte[] decisions;
+    private final boolean[] referenced;
+    private final int mask;
+    private final int maxSize;
+    private int size;
+    // 時鐘指針
+    private int hand;
+
+    // 統計：命中、未命中與淘汰的次數 (快取是否划算要比較同樣的遊戲直接決策與透過快取的實際時間，見 BatchRunner)
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public DecisionCache(AutopilotStrategy delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    // capacity 會進位到 2 的次方
+    public DecisionCache(AutopilotStrategy delegate, int capacity) {
+        this.delegate = delegate;
+        int tableSize = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        keys = new int[tableSize];
+        decisions = new byte[tableSize];
+        referenced = new boolean[tableSize];
+        Arrays.fill(keys, EMPTY);
+        mask = tableSize - 1;
+        maxSize = tableSize * MAX_LOAD_PERCENT / 100;
+    }
+
+    // 只看局部視窗的策略加上快取，其他策略原樣回傳 (它們的決策取決於整個棋盤，快取會改變遊戲)
+    public static AutopilotStrategy wrap(AutopilotStrategy strategy) {
+        return strategy.isLocalWindowOnly() ? new DecisionCache(strategy) : strategy;
+    }
+
+    @Override
+    public char decide(SnakeEngine engine) {
+        int key = key(engine);
+        int slot = find(key);
+        if (slot >= 0) {
+            referenced[slot] = true;
+            hits++;
+            return SnakeEngine.DIRECTIONS[decisions[slot]];
+        }
+        char decision = delegate.decide(engine);
+        insert(key, SnakeEngine.directionIndex(decision));
+        misses++;
+        return decision;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public boolean isLocalWindowOnly() {
+        return delegate.isLocalWindowOnly();
+    }
+
+    // 目前局面的鍵：視窗 (25 bits) | 目前方向 (2 bits) | 食物的相對方向 (3x3，4 bits)
+    // 視窗逐列讀取佔用表，棋盤外的格子算是佔用；蛇頭本身永遠是佔用的，其餘格子佔用即會碰撞
+    static int key(SnakeEngine engine) {
+        int headX = engine.getHeadX();
+        int headY = engine.getHeadY();
+        int cols = engine.getCols();
+        byte[] occupied = engine.occupied;
+        int window = 0;
+        if (headX >= RADIUS && headX < cols - RADIUS && headY >= RADIUS && headY < engine.getRows() - RADIUS) {
+            // 視窗完全在棋盤內 (絕大多數的刻)，不必檢查邊界
+            for (int row = (headY - RADIUS) * cols + headX - RADIUS, dy = -RADIUS; dy <= RADIUS; dy++, row += cols) {
+                for (int dx = 0; dx <= 2 * RADIUS; dx++) {
+                    window = window << 1 | (occupied[row + dx] != 0 ? 1 : 0);
+                }
+            }
+        } else {
+            for (int y = headY - RADIUS; y <= headY + RADIUS; y++) {
+                for (int x = headX - RADIUS; x <= headX + RADIUS; x++) {
+                    window = window << 1 | (!engine.inBounds(x, y) || occupied[y * cols + x] != 0 ? 1 : 0);
+                }
+            }
+        }
+        int food = (Integer.signum(engine.getFoodY() - headY) + 1) * 3 + Integer.signum(engine.getFoodX() - headX) + 1;
+        return window << 6 | SnakeEngine.directionIndex(engine.getDirection()) << 4 | food;
+    }
+
+    // 鍵所在的位置，不在表格中時回傳 -1
+    private int find(int key) {
+        for (int slot = home(key); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // 插入一筆新的決策 (呼叫前已確認鍵不在表格中)；新的一筆參考位元為 0，要再被用到一次才有第二次機會
+    private void insert(int key, int decision) {
+        if (size >= maxSize) {
+            evict();
+        }
+        int slot = home(key);
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        decisions[slot] = (byte) decision;
+        referenced[slot] = false;
+        size++;
+    }
+
+    // 時鐘演算法：指針繞著表格走，參考位元為 1 的清為 0 並略過，淘汰第一筆參考位元為 0 的
+    private void evict() {
+        while (true) {
+            int slot = hand;
+            hand = (hand + 1) & mask;
+            if (keys[slot] == EMPTY) {
+                continue;
+            }
+            if (referenced[slot]) {
+                referenced[slot] = false;
+                continue;
+            }
+            remove(slot);
+            evictions++;
+            return;
+        }
+    }
+
+    // 移除一筆，並把同一條探測鏈後面的項目往前移 (backward shift)，不需要墓碑
+    private void remove(int slot) {
+        int hole = slot;
+        for (int j = (slot + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            // j 的主位置不在 (hole, j] 之間時，可以移到空出來的位置
+            int home = home(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                decisions[hole] = decisions[j];
+                referenced[hole] = referenced[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+        size--;
+    }
+
+    private int home(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public AutopilotStrategy getDelegate() {
+        return delegate;
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
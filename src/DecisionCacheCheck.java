@@ -0,0 +1,129 @@
+import java.util.Random;
+
+// 決策快取的檢查：同樣的種子分別以直接決策與透過 DecisionCache 決策各玩一輪，每一刻的方向都必須相同
+// 檢查所有只看局部視窗的策略 (見 AutopilotStrategy.isLocalWindowOnly；Q-learning 使用手動建立的 Q 值表，不需要先訓練)，並回報命中率與兩輪的時間
+// 另外以前瞻策略示範為什麼只有只看局部視窗的策略可以使用快取：強制加上快取後，遊戲會與原本不同
+// 用法: java DecisionCacheCheck [場數] [寬(格)] [高(格)] [種子]
+public class DecisionCacheCheck {
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 76;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 43;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+
+        float[] table = handMadeTable(seed);
+        boolean passed = true;
+        passed &= check(new GreedyStrategy(), new GreedyStrategy(), games, cols, rows, seed, true);
+        passed &= check(new QLearningStrategy(table), new QLearningStrategy(table), games, cols, rows, seed, true);
+
+        // 取決於整個棋盤的策略：wrap() 不加上快取
+        AutopilotStrategy lookahead = new LookaheadStrategy();
+        if (DecisionCache.wrap(lookahead) != lookahead) {
+            System.out.println("FAIL: DecisionCache.wrap cached a strategy that does not decide from the local window only");
+            passed = false;
+        }
+        check(new LookaheadStrategy(), new DecisionCache(new LookaheadStrategy()), Math.max(1, games / 40), cols, rows, seed, false);
+
+        System.out.println(passed ? "OK" : "FAILED");
+        System.exit(passed ? 0 : 1);
+    }
+
+    // Q 值表：避開會碰撞的方向、偏向食物的方向，其餘以隨機值決定 (狀態的編碼見 QLearningStrategy.encode)
+    static float[] handMadeTable(long seed) {
+        float[] table = new float[QLearningStrategy.STATE_COUNT * QLearningStrategy.ACTION_COUNT];
+        Random random = new Random(seed);
+        for (int state = 0; state < QLearningStrategy.STATE_COUNT; state++) {
+            int danger = state / (4 * 9 * 16);
+            int food = state / 16 % 9;
+            int foodDx = food % 3 - 1;
+            int foodDy = food / 3 - 1;
+            for (int a = 0; a < QLearningStrategy.ACTION_COUNT; a++) {
+                float value = random.nextFloat();
+                if ((danger & (1 << a)) != 0) {
+                    value -= 2;
+                }
+                if (SnakeEngine.DX[a] == foodDx && foodDx != 0 || SnakeEngine.DY[a] == foodDy && foodDy != 0) {
+                    value += 1;
+                }
+                table[state * QLearningStrategy.ACTION_COUNT + a] = value;
+            }
+        }
+        return table;
+    }
+
+    // 以相同的種子各玩 games 場，比較每一場的方向序列；expectSame 為 false 時只回報有幾場不同
+    static boolean check(AutopilotStrategy direct, AutopilotStrategy other, int games, int cols, int rows, long seed,
+                         boolean expectSame) {
+        DecisionCache cache = other instanceof DecisionCache ? (DecisionCache) other : new DecisionCache(other);
+        long[] directTicks = new long[1];
+        long[] cachedTicks = new long[1];
+        long directNanos = 0;
+        long cachedNanos = 0;
+        int different = 0;
+        SnakeEngine directEngine = new SnakeEngine(cols, rows, seed);
+        directEngine.setStrategy(direct);
+        SnakeEngine cachedEngine = new SnakeEngine(cols, rows, seed);
+        cachedEngine.setStrategy(cache);
+        Random seeds = new Random(seed);
+        for (int g = 0; g < games; g++) {
+            long gameSeed = seeds.nextLong();
+            long start = System.nanoTime();
+            long expected = play(directEngine, gameSeed, directTicks);
+            long middle = System.nanoTime();
+            long actual = play(cachedEngine, gameSeed, cachedTicks);
+            long end = System.nanoTime();
+            directNanos += middle - start;
+            cachedNanos += end - middle;
+            if (expected != actual || directEngine.getTicks() != cachedEngine.getTicks()
+                    || directEngine.getScore() != cachedEngine.getScore()) {
+                if (expectSame) {
+                    System.out.printf("FAIL: %s: game %d (seed %d) differs with the decision cache at tick %d%n",
+                            direct.getName(), g, gameSeed, firstDifference(direct, cache, cols, rows, gameSeed));
+                    return false;
+                }
+                different++;
+            }
+        }
+        // 遊戲不同時兩輪的時間無法比較，只有遊戲相同時才回報快取實際省下或多花的時間
+        String net = !expectSame ? "" : String.format(" (%s %.2f s)",
+                directNanos >= cachedNanos ? "saved" : "lost", Math.abs(directNanos - cachedNanos) / 1e9);
+        System.out.printf("%-11s: %,d games, %,d ticks, direct %.2f s, cached %.2f s%s; hit rate %.1f%%, %,d evictions%n",
+                direct.getName(), games, directTicks[0], directNanos / 1e9, cachedNanos / 1e9, net,
+                cache.getHitRate() * 100, cache.getEvictions());
+        if (!expectSame) {
+            System.out.printf("             not local-window-only: %d of %d games differ when the cache is forced on%n",
+                    different, games);
+        }
+        return true;
+    }
+
+    // 玩一場遊戲 (與 BatchRunner.playGame 相同的結束條件)，回傳每一刻方向的雜湊，刻數累加到 ticks
+    private static long play(SnakeEngine engine, long gameSeed, long[] ticks) {
+        engine.reset(gameSeed);
+        long starveLimit = (long) engine.getGameUnits() * 4;
+        long hash = 17;
+        while (engine.step()) {
+            hash = hash * 31 + engine.getDirection();
+            if (engine.getTicksSinceFood() > starveLimit) {
+                break;
+            }
+        }
+        ticks[0] += engine.getTicks();
+        return hash;
+    }
+
+    // 找出兩者第一次做出不同決策的刻 (只在檢查失敗時使用，快取沿用目前的內容)
+    private static long firstDifference(AutopilotStrategy direct, DecisionCache cache, int cols, int rows, long gameSeed) {
+        SnakeEngine engine = new SnakeEngine(cols, rows, gameSeed);
+        engine.reset(gameSeed);
+        while (engine.isRunning()) {
+            char expected = direct.decide(engine);
+            if (cache.decide(engine) != expected) {
+                return engine.getTicks();
+            }
+            engine.step(expected);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 三重緩衝的畫面交換：模擬端與繪圖端各自持有一份快照，第三份放在中間，交換時只需一次原子操作 (無鎖)
+// 模擬端填好自己的快照後 publish()，與中間的快照交換；繪圖端 latest() 時若中間有新的快照就與自己的交換
+// 模擬端永遠不必等待繪圖端 (來不及畫的快照直接被下一份覆蓋)，繪圖端也永遠拿到完整的一刻
+// 只能有一個模擬執行緒與一個繪圖執行緒
+public class FrameExchange {
+
+    // middle 的低兩位元是中間快照的索引，NEW_BIT 表示中間的快照尚未被繪圖端取走
+    private static final int INDEX_MASK = 3;
+    private static final int NEW_BIT = 4;
+
+    private final RenderFrame[] frames = {new RenderFrame(), new RenderFrame(), new RenderFrame()};
+    private final AtomicInteger middle = new AtomicInteger(1);
+    // 只由模擬端使用
+    private int back = 0;
+    // 只由繪圖端使用
+    private int front = 2;
+    // 統計：發布與被繪圖端取走的快照數
+    private volatile long published;
+    private volatile long consumed;
+
+    // 模擬端：取得可以寫入的快照
+    RenderFrame back() {
+        return frames[back];
+    }
+
+    // 模擬端：發布剛寫好的快照，換回一份可以重複使用的
+    void publish() {
+        back = middle.getAndSet(back | NEW_BIT) & INDEX_MASK;
+        published++;
+    }
+
+    // 繪圖端：取得最新的快照 (沒有新的快照時回傳上一次的)
+    RenderFrame latest() {
+        if ((middle.get() & NEW_BIT) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+            consumed++;
+        }
+        return frames[front];
+    }
+
+    // 模擬端：上一份發布的快照是否還沒被繪圖端取走
+    boolean hasUnconsumed() {
+        return (middle.get() & NEW_BIT) != 0;
+    }
+
+    long getPublished() {
+        return published;
+    }
+
+    long getConsumed() {
+        return consumed;
+    }
+}
@@ -0,0 +1,183 @@
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+// 畫面快照交換的檢查：模擬執行緒全速推進並發布快照，同時由另一個執行緒不斷讀取或繪製
+// 1. 繪圖端拿到的每一份快照都必須是完整的一刻 (蛇身連續且不重複、食物不在蛇身上、刻數不倒退)
+// 2. 模擬與繪圖在不同執行緒時，逐刻增量更新的畫面必須與從快照完整重建的畫面完全相同 (一般棋盤與鏡頭模式)
+// 用法: java -Djava.awt.headless=true FrameExchangeCheck [每項秒數]
+public class FrameExchangeCheck {
+
+    private static volatile boolean running;
+
+    public static void main(String[] args) throws InterruptedException {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 3;
+        boolean passed = checkFrames(seconds);
+        // 76x43 的一般棋盤，以及 800x600 畫面上的 100x100 棋盤 (鏡頭模式)；
+        // 使用 Lookahead 策略，每場遊戲夠長，檢查點大多落在遊戲進行中
+        passed &= checkPanel(new GameSettings.Snapshot(2, 4, 4, 0, false, 0, 0, 0), seconds);
+        passed &= checkPanel(new GameSettings.Snapshot(2, 0, 4, 0, false, 0, 1, 0), seconds);
+        System.out.println(passed ? "OK" : "FAILED");
+        System.exit(passed ? 0 : 1);
+    }
+
+    // 直接使用 FrameExchange：一個執行緒全速模擬並發布，另一個執行緒檢查每一份拿到的快照
+    static boolean checkFrames(double seconds) throws InterruptedException {
+        FrameExchange frames = new FrameExchange();
+        SnakeEngine engine = new SnakeEngine(76, 43, 1L);
+        long[] ticks = new long[1];
+        running = true;
+        Thread simulation = new Thread(() -> {
+            long generation = 0;
+            frames.back().copyFrom(engine, generation);
+            frames.publish();
+            while (running) {
+                if (!engine.step() || engine.getTicksSinceFood() > 4L * engine.getGameUnits()) {
+                    engine.reset(++generation);
+                }
+                frames.back().copyFrom(engine, generation);
+                frames.publish();
+                ticks[0]++;
+            }
+        }, "simulation");
+
+        long[] checked = new long[1];
+        String[] error = new String[1];
+        Thread painter = new Thread(() -> {
+            int[] stamps = new int[engine.getGameUnits()];
+            int stamp = 0;
+            long lastGeneration = -1;
+            long lastTicks = -1;
+            while (running && error[0] == null) {
+                RenderFrame frame = frames.latest();
+                if (frame.generation < 0 || (frame.generation == lastGeneration && frame.ticks == lastTicks)) {
+                    continue;
+                }
+                stamp++;
+                error[0] = validate(frame, stamps, stamp, lastGeneration, lastTicks);
+                lastGeneration = frame.generation;
+                lastTicks = frame.ticks;
+                checked[0]++;
+            }
+        }, "painter");
+
+        simulation.start();
+        painter.start();
+        Thread.sleep((long) (seconds * 1000));
+        running = false;
+        simulation.join();
+        painter.join();
+
+        System.out.printf("exchange: %,d ticks published (%,.0f/s), %,d frames read and checked%n",
+                frames.getPublished(), ticks[0] / seconds, checked[0]);
+        if (error[0] != null) {
+            System.out.println("FAIL: " + error[0]);
+            return false;
+        }
+        return true;
+    }
+
+    // 一份快照是否是完整的一刻，不是時回傳錯誤訊息
+    static String validate(RenderFrame frame, int[] stamps, int stamp, long lastGeneration, long lastTicks) {
+        if (frame.generation < lastGeneration || (frame.generation == lastGeneration && frame.ticks < lastTicks)) {
+            return "frame went backwards: generation " + frame.generation + " tick " + frame.ticks;
+        }
+        if (frame.isRunning() && (frame.baseTicks >= 0 || frame.cellCount != frame.length)) {
+            return "full frame is missing body cells at tick " + frame.ticks;
+        }
+        int cols = frame.cols;
+        for (int i = 0; i < frame.cellCount; i++) {
+            int cell = frame.cells[i];
+            if (cell < 0 || cell >= stamps.length) {
+                return "cell out of board at tick " + frame.ticks;
+            }
+            if (stamps[cell] == stamp) {
+                return "duplicate body cell at tick " + frame.ticks;
+            }
+            stamps[cell] = stamp;
+            if (i > 0) {
+                int previous = frame.cells[i - 1];
+                int distance = Math.abs(cell % cols - previous % cols) + Math.abs(cell / cols - previous / cols);
+                if (distance != 1) {
+                    return "body is not contiguous at tick " + frame.ticks;
+                }
+            }
+        }
+        if (frame.isRunning() && frame.foodCell >= 0 && stamps[frame.foodCell] == stamp) {
+            return "food inside the body at tick " + frame.ticks;
+        }
+        return null;
+    }
+
+    // 使用不顯示的 GamePanel：遊戲刻在模擬執行緒上推進，繪製在另一個執行緒上進行；
+    // 每隔一段時間停下兩者，比較增量更新的畫面與完整重建的畫面
+    static boolean checkPanel(GameSettings.Snapshot settings, double seconds) throws InterruptedException {
+        GameSettings.publish(settings.withGameSpeed(60_000));
+        GamePanel panel = new GamePanel();
+        // 不使用 Timer，遊戲刻只由這裡的模擬執行緒推進
+        panel.timer.stop();
+        panel.timer = null;
+        panel.restartDelayNanos = 0;
+        panel.setSize(settings.screenWidth, settings.screenHeight);
+        BufferedImage incremental = new BufferedImage(settings.screenWidth, settings.screenHeight, BufferedImage.TYPE_INT_RGB);
+        BufferedImage rebuilt = new BufferedImage(settings.screenWidth, settings.screenHeight, BufferedImage.TYPE_INT_RGB);
+
+        int rounds = 20;
+        long ticks = 0;
+        long paints = 0;
+        int compared = 0;
+        for (int round = 0; round < rounds; round++) {
+            long[] roundTicks = new long[1];
+            long[] roundPaints = new long[1];
+            running = true;
+            Thread simulation = new Thread(() -> {
+                while (running) {
+                    panel.tick();
+                    roundTicks[0]++;
+                }
+            }, "simulation");
+            Thread painter = new Thread(() -> {
+                Graphics g = incremental.getGraphics();
+                while (running) {
+                    panel.draw(g);
+                    roundPaints[0]++;
+                }
+                g.dispose();
+            }, "painter");
+            simulation.start();
+            painter.start();
+            Thread.sleep((long) (seconds * 1000 / rounds));
+            running = false;
+            simulation.join();
+            painter.join();
+            ticks += roundTicks[0];
+            paints += roundPaints[0];
+
+            // 兩個執行緒都已結束，由這裡接手繪圖端：先畫出增量更新的結果，再完整重建一次
+            if (!panel.engine.isRunning()) {
+                continue;
+            }
+            Graphics g = incremental.getGraphics();
+            panel.draw(g);
+            g.dispose();
+            panel.invalidateBoard();
+            g = rebuilt.getGraphics();
+            panel.draw(g);
+            g.dispose();
+            compared++;
+            if (!Arrays.equals(pixels(incremental), pixels(rebuilt))) {
+                System.out.printf("FAIL: board %dx%d: incremental frame differs from rebuilt frame at tick %d%n",
+                        panel.BOARD_COLS, panel.BOARD_ROWS, panel.engine.getTicks());
+                return false;
+            }
+        }
+        System.out.printf("panel %dx%d%s: %,d ticks and %,d paints on separate threads, %d/%d checkpoints compared%n",
+                panel.BOARD_COLS, panel.BOARD_ROWS, panel.viewport ? " (viewport)" : "", ticks, paints, compared, rounds);
+        return true;
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+}
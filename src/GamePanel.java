@@ -1,11 +1,16 @@
+import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.Timer;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.DisplayMode;
 import java.awt.Graphics;
-import java.awt.Point;
-import java.util.ArrayList;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
@@ -17,27 +22,144 @@ public class GamePanel extends JPanel implements ActionListener  { // 實現 Act
     final int UNIT_SIZE = 25; // 每個方塊的大小
     final int SCREEN_WIDTH;
     final int SCREEN_HEIGHT;
+    // 棋盤大小 (格數)，可以大於畫面：大於畫面時以鏡頭跟著蛇頭，只畫出看得到的格子
+    final int BOARD_COLS;
+    final int BOARD_ROWS;
     final int GAME_UNITS;
-    boolean paused = false; // 新增變數來追蹤遊戲是否暫停
-
-    // 蛇的身體座標
-    ArrayList<Point> snakeBody;
-    // 食物的座標
-    Point food;
-    // 隨機數生成器
-    Random random;
-    // 遊戲迴圈
+    final boolean viewport;
+    volatile boolean paused = false; // 新增變數來追蹤遊戲是否暫停 (主動繪圖模式下由遊戲執行緒讀取)
+    // 這個面板使用的設定 (建立時取得的快照，熱重新載入時整份替換)
+    private volatile GameSettings.Snapshot settings;
+    // 熱重新載入後要換上的策略 (由遊戲迴圈在下一刻換上，避免與主動繪圖的執行緒衝突)
+    private volatile AutopilotStrategy pendingStrategy;
+    // 主動繪圖模式下套用設定後，由遊戲執行緒在下一刻重新開始
+    private volatile boolean restartRequested;
+
+    // 遊戲引擎 (所有遊戲狀態與規則；競技場模式為 null，由 arena 推進)
+    SnakeEngine engine;
+    // 遊戲迴圈：唯一的 Timer，同時負責遊戲刻與遊戲結束後的重新開始 (整個面板只建立一次)
     Timer timer;
-    // 遊戲狀態
-    boolean running = false;
-    // 蛇的移動方向
-    char direction = 'R'; // 預設向右 (Right)
+    // 遊戲結束後等待多久重新開始，以及這次重新開始的時間 (0 表示沒有排定)
+    static final long RESTART_DELAY_NANOS = 5_000_000_000L;
+    long restartDelayNanos = RESTART_DELAY_NANOS;
+    private long restartAt = 0;
+    // 已經開始的遊戲場數 (用來確認每次死亡只會重新開始一次)
+    long gamesStarted;
+    // 主動繪圖模式的遊戲執行緒 (為 null 時使用 Swing Timer)
+    ActiveRenderLoop activeLoop;
+    // 加速模式的模擬執行緒 (Timer 繪圖模式下加速倍率不是 1x 時使用，否則為 null)
+    SimulationLoop simulationLoop;
+    // 加速模式下以螢幕更新率重繪的 Timer，以及上一次要求重繪時已發布的快照數
+    private final Timer repaintTimer = new Timer(refreshIntervalMillis(), e -> repaintIfChanged());
+    private long repaintedFrames = -1;
+    // 效能統計與效能面板 (按 P 鍵切換顯示)
+    final PerfMetrics metrics = new PerfMetrics();
+    // 每場遊戲的種子來源，以及把每場遊戲錄成重播檔的錄製器
+    private final Random seedSource = new Random();
+    private final ReplayRecorder recorder = new ReplayRecorder();
+    // 這場遊戲的種子，以及記錄每場結束的遊戲的分數紀錄 (為 null 時不記錄，例如重播與檢查工具)
+    private long gameSeed;
+    private ScoreLog scoreLog;
+    // 重播模式 (為 null 時由自動駕駛遊玩)：每次推進 replaySpeed 刻，seekTarget >= 0 時跳到該刻
+    final Replay replay;
+    private volatile int replaySpeed = 1;
+    private volatile int seekTarget = -1;
+    // 競技場模式 (為 null 時為單一條蛇)
+    ArenaEngine arena;
+    // 模擬端每次改變狀態後發布一份畫面快照，繪圖端只從最新的快照作畫
+    final FrameExchange frames = new FrameExchange();
+    // 目前快照的代數 (只由模擬端修改，見 RenderFrame.generation)
+    private long generation;
+    // 加速時不必每一刻都複製快照：最多每 WARP_PUBLISH_NANOS 發布一次 (仍遠高於螢幕更新率)，
+    // 上一份還沒被取走時也先不發布，下一份快照只需帶著繪圖端同步之後的新蛇頭
+    // frameStale 表示最新的遊戲刻還沒有發布 (暫停時補上)
+    private static final long WARP_PUBLISH_NANOS = 1_000_000L;
+    private volatile boolean warping;
+    private long lastPublishNanos;
+    private boolean frameStale;
+
+    // 重播模式每次跳轉的刻數與最高播放速度 (每個遊戲刻推進的刻數)
+    private static final int REPLAY_SEEK_TICKS = 100;
+    private static final int MAX_REPLAY_SPEED = 1024;
+
+    // 繪圖用的固定顏色 (避免每一幀都建立新的 Color)
+    private static final Color GRID_COLOR = new Color(10, 10, 10, 30);
+    // 競技場中蛇身的顏色 (依蛇的編號輪流使用)
+    private static final Color[] ARENA_BODY_COLORS = {
+            SpriteCache.BODY_COLOR, new Color(30, 110, 220), new Color(230, 140, 0), new Color(150, 60, 200),
+            new Color(0, 160, 160), new Color(200, 50, 120), new Color(120, 120, 40), new Color(90, 90, 90)
+    };
+    // 預先畫好的蛇頭、蛇身、食物與文字圖塊
+    private SpriteCache sprites;
+    // 遊戲結束畫面的分數文字、寬度與它對應的分數 (分數改變時才重新量測)
+    private String scoreText;
+    private int scoreTextWidth;
+    private int scoreTextScore = -1;
+    // 遊戲結束畫面的排行榜文字、最寬一行的寬度與它對應的摘要 (摘要改變時才重新組合)
+    private String[] leaderboardLines;
+    private int leaderboardWidth;
+    private ScoreLog.Summary leaderboardSummary;
+    // 以下都只由繪圖端使用 (Timer 模式為 EDT，主動繪圖模式為遊戲執行緒)
+    // 預先畫好的網格背景 (依棋盤大小只畫一次)
+    private BufferedImage backgroundLayer;
+    // 棋盤圖層：背景加上蛇與食物，每一刻只更新有變動的格子
+    private BufferedImage boardLayer;
+    // 由快照重建的蛇身佔用位元棋盤 (棋盤圖層與鏡頭模式都從這裡逐列掃描)
+    private Bitboard boardCells;
+    // 繪圖端的棋盤是否有效，以及它對應的快照代數、遊戲刻、蛇長與蛇頭、蛇尾、食物的格子
+    private boolean boardValid = false;
+    private long boardGeneration = -1;
+    private long boardTicks = -1;
+    private int boardLength;
+    private int boardHead = -1;
+    private int boardPreviousHead = -1;
+    private int boardTail = -1;
+    private int boardFood = -1;
+    // 繪圖端自己的蛇身 (環狀緩衝區，容量為 2 的次方，boardBody[boardBodyHead] 為蛇頭，共 boardLength 節)
+    // 快照只帶來新的蛇頭，由這裡知道要讓出哪些蛇尾
+    private int[] boardBody = new int[64];
+    private int boardBodyHead;
+    // 繪圖端的棋盤已經畫到的快照代數與遊戲刻，模擬端據此決定快照要複製多少蛇身 (先寫刻數再寫代數)
+    private volatile long syncedTicks = -1;
+    private volatile long syncedGeneration = -1;
+    // 鏡頭左上角的格子座標 (鏡頭模式)
+    private int cameraX;
+    private int cameraY;
+    // 小地圖 (鏡頭模式下按 M 鍵切換)：每個像素代表 minimapBlock x minimapBlock 格，
+    // minimapCounts 記錄每一塊中的蛇身節數，每一刻只更新蛇頭與蛇尾所在的像素
+    private static final int MINIMAP_SIZE = 200;
+    private static final Color MINIMAP_BORDER_COLOR = new Color(0, 0, 0, 120);
+    private boolean minimapVisible = false;
+    private BufferedImage minimapImage;
+    private int[] minimapCounts;
+    private int minimapBlock;
+    private boolean minimapValid = false;
 
     public GamePanel() {
-        // 從 GameSettings 類別中取得畫面大小
-        this.SCREEN_WIDTH = GameSettings.screenWidth;
-        this.SCREEN_HEIGHT = GameSettings.screenHeight;
-        this.GAME_UNITS = (SCREEN_WIDTH * SCREEN_HEIGHT) / (UNIT_SIZE * UNIT_SIZE);
+        this(null);
+    }
+
+    // 傳入重播資料時，畫面改為播放該場遊戲 (方向鍵左右跳轉、上下調整速度)
+    public GamePanel(Replay replay) {
+        this.replay = replay;
+        // 一次取得整份設定，之後都從這份快照讀取
+        this.settings = GameSettings.current();
+        // 從設定中取得畫面大小
+        this.SCREEN_WIDTH = settings.screenWidth;
+        this.SCREEN_HEIGHT = settings.screenHeight;
+        // 棋盤大小：重播檔的大小、設定中的棋盤大小，或依畫面大小決定
+        if (replay != null) {
+            this.BOARD_COLS = replay.getCols();
+            this.BOARD_ROWS = replay.getRows();
+        } else if (settings.boardSizeIndex > 0) {
+            this.BOARD_COLS = GameSettings.BOARD_SIZES[settings.boardSizeIndex][0];
+            this.BOARD_ROWS = GameSettings.BOARD_SIZES[settings.boardSizeIndex][1];
+        } else {
+            this.BOARD_COLS = SCREEN_WIDTH / UNIT_SIZE;
+            this.BOARD_ROWS = SCREEN_HEIGHT / UNIT_SIZE;
+        }
+        this.GAME_UNITS = BOARD_COLS * BOARD_ROWS;
+        this.viewport = BOARD_COLS * UNIT_SIZE > SCREEN_WIDTH || BOARD_ROWS * UNIT_SIZE > SCREEN_HEIGHT;
 
         this.setPreferredSize(new Dimension(SCREEN_WIDTH, SCREEN_HEIGHT));
         // 設定背景顏色
@@ -46,317 +168,900 @@ public class GamePanel extends JPanel implements ActionListener  { // 實現 Act
         this.setFocusable(true);
         this.addKeyListener(new MyKeyAdapter()); // 為之後的自動化邏輯做準備
 
-        random = new Random();
+        if (replay != null) {
+            engine = replay.newEngine();
+        } else if (settings.gameModeIndex == 1) {
+            // 競技場的蛇數依棋盤大小決定 (有上限)，食物與蛇一樣多；決策使用共用的 ForkJoin 執行緒池
+            int snakes = Math.min(GameSettings.ARENA_MAX_SNAKES, Math.max(2, GAME_UNITS / GameSettings.ARENA_UNITS_PER_SNAKE));
+            arena = new ArenaEngine(BOARD_COLS, BOARD_ROWS, snakes, snakes, seedSource.nextLong(), ForkJoinPool.commonPool());
+            arena.setMetrics(metrics);
+        } else {
+            engine = new SnakeEngine(BOARD_COLS, BOARD_ROWS, seedSource.nextLong());
+            engine.setRecorder(recorder);
+        }
+        if (engine != null) {
+            engine.setStrategy(AutopilotStrategies.create(settings.autopilotIndex));
+            engine.setMetrics(metrics);
+        }
+        if (settings.metricsExport) {
+            metrics.enableCsvExport();
+        }
+        // 建立遊戲迴圈的 Timer (切換為主動繪圖模式時會停止並改由遊戲執行緒推進)
+        timer = new Timer(settings.gameSpeed, this);
         // 初始化遊戲物件
         initGame();
+        // 加速倍率不是 1x 時改由模擬執行緒推進
+        applyWarp(settings.warpFactor(), settings.gameSpeed);
     }
 
-    // 初始化遊戲狀態
+    // 初始化遊戲狀態：就地重置引擎 (重複使用所有陣列)，不建立新的 Timer 或集合
     public void initGame() {
-        // 在重新開始遊戲時，先檢查並停止舊的 Timer
+        // 以新的種子重置蛇的身體、方向與食物，並開始錄製這場遊戲 (重播模式則回到第 0 刻)
+        if (replay != null) {
+            replay.seek(engine, 0);
+        } else if (arena != null) {
+            arena.reset(seedSource.nextLong());
+        } else {
+            gameSeed = seedSource.nextLong();
+            engine.reset(gameSeed);
+            recorder.begin(engine.getCols(), engine.getRows(), gameSeed);
+        }
+        restartAt = 0;
+        gamesStarted++;
+        invalidateBoard();
+
+        // 啟動遊戲迴圈 (主動繪圖模式與加速模式由各自的執行緒推進，不使用 Timer)
+        if (timer != null && simulationLoop == null && !timer.isRunning() && !paused) {
+            timer.start();
+        }
+    }
+
+    // 切換為主動繪圖模式：停止 Swing Timer，改由專屬的遊戲執行緒推進並繪製到視窗的 BufferStrategy
+    public void startActiveRendering(JFrame frame) {
         if (timer != null) {
             timer.stop();
+            timer = null;
         }
-        // 初始化蛇的身體
-        snakeBody = new ArrayList<>();
-        direction = 'R'; // 重新開始時，方向重置為向右
+        stopSimulationLoop();
+        frame.setIgnoreRepaint(true);
+        this.setIgnoreRepaint(true);
+        activeLoop = new ActiveRenderLoop(frame, this, settings.gameSpeed);
+        activeLoop.setWarp(settings.warpFactor());
+        warping = settings.warpFactor() != 1;
+        activeLoop.start();
+    }
 
-        // 計算蛇的初始位置在遊戲畫面的中心
-        int startX = (SCREEN_WIDTH / (2 * UNIT_SIZE)) * UNIT_SIZE;
-        int startY = (SCREEN_HEIGHT / (2 * UNIT_SIZE)) * UNIT_SIZE;
-        // 初始蛇頭位置
-        snakeBody.add(new Point(startX, startY));
-        // 初始蛇的長度為 3
-        for (int i = 0; i < 3; i++) {
-            snakeBody.add(new Point(startX - i * UNIT_SIZE, startY));
+    // 套用加速倍率 (在 EDT 上呼叫)：1x 由 Swing Timer 逐刻推進並只重繪有變動的格子；
+    // 其他倍率停止 Timer，改由模擬執行緒推進，畫面以螢幕更新率重繪 (主動繪圖模式由遊戲執行緒依倍率推進)
+    // 在執行緒之間切換時先停止原本的迴圈，遊戲狀態與快照的發布永遠只屬於一個執行緒
+    private void applyWarp(int warp, int tickMillis) {
+        warping = warp != 1;
+        if (activeLoop != null) {
+            activeLoop.setWarp(warp);
+            return;
+        }
+        if (warp == 1) {
+            stopSimulationLoop();
+            if (timer != null && !timer.isRunning() && !paused) {
+                timer.start();
+            }
+            return;
+        }
+        if (simulationLoop != null) {
+            simulationLoop.setWarp(warp);
+            return;
+        }
+        if (timer != null) {
+            timer.stop();
         }
+        simulationLoop = new SimulationLoop(this, tickMillis, warp);
+        simulationLoop.start();
+        repaintTimer.start();
+    }
 
-        // 生成第一顆食物
-        newFood();
+    private void stopSimulationLoop() {
+        if (simulationLoop != null) {
+            simulationLoop.stop();
+            simulationLoop = null;
+            repaintTimer.stop();
+            repaint();
+        }
+    }
 
-        // 啟動遊戲迴圈
-        running = true;
-        // 使用 GameSettings 的 gameSpeed
-        timer = new Timer(GameSettings.gameSpeed, this);
-        timer.start();
+    // 加速模式：有新的快照時才要求重繪 (Swing 會把一次繪圖前的多次要求合併)
+    private void repaintIfChanged() {
+        long published = frames.getPublished();
+        if (published != repaintedFrames) {
+            repaintedFrames = published;
+            repaint();
+        }
+    }
+
+    // 螢幕更新一次的毫秒數 (無法取得更新率時以 60Hz 計算)
+    private static int refreshIntervalMillis() {
+        int hz = DisplayMode.REFRESH_RATE_UNKNOWN;
+        if (!GraphicsEnvironment.isHeadless()) {
+            hz = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+        }
+        return 1000 / (hz > 0 ? hz : 60);
+    }
+
+    // 面板從視窗移除時 (例如套用設定後重新建立遊戲視窗) 停止這個面板的遊戲迴圈
+    @Override
+    public void removeNotify() {
+        super.removeNotify();
+        stopGameLoops();
+    }
+
+    // 停止 Timer、主動繪圖與模擬執行緒 (在 EDT 上呼叫；返回後不會再有遊戲刻)，並關閉進行中的重播檔
+    // (新的面板會重新建立 replay_current.snkr，舊的檔案通道必須先關閉)
+    void stopGameLoops() {
+        if (timer != null) {
+            timer.stop();
+        }
+        if (activeLoop != null) {
+            activeLoop.stop();
+        }
+        stopSimulationLoop();
+        recorder.finish(false);
     }
     // 套用設定並重新啟動遊戲的方法
     public void applyAndRestart() {
-        // 先停止舊的遊戲迴圈
+        // 套用新的參數 (沿用同一個 Timer，只調整間隔)；策略由遊戲迴圈在下一刻換上
+        settings = GameSettings.current();
+        pendingStrategy = AutopilotStrategies.create(settings.autopilotIndex);
         if (timer != null) {
-            timer.stop();
+            timer.setDelay(settings.gameSpeed);
         }
 
-        // 重新初始化遊戲，新的參數將在 initGame 中被讀取
-        initGame();
-
-        // 確保遊戲狀態為運行中，並開始新的計時器
-        running = true;
+        // 確保遊戲狀態為運行中，並重新初始化遊戲
+        // (由主動繪圖或模擬執行緒推進時遊戲狀態屬於該執行緒，交給它在下一刻重新開始)
         paused = false;
-        timer = new Timer(GameSettings.gameSpeed, this);
-        timer.start();
+        applyWarp(settings.warpFactor(), settings.gameSpeed);
+        if (activeLoop != null || simulationLoop != null) {
+            restartRequested = true;
+        } else {
+            initGame();
+        }
+    }
+
+    // 設定檔被外部修改時 (由監看執行緒呼叫)：速度與自動駕駛策略直接套用到進行中的遊戲，
+    // 其他設定 (畫面大小、棋盤大小、模式) 需要重建遊戲視窗
+    void onSettingsReloaded(GameSettings.Snapshot reloaded) {
+        SwingUtilities.invokeLater(() -> {
+            if (reloaded.needsRestart(settings)) {
+                SnakeGame.restartGame();
+                return;
+            }
+            if (reloaded.autopilotIndex != settings.autopilotIndex) {
+                pendingStrategy = AutopilotStrategies.create(reloaded.autopilotIndex);
+            }
+            if (reloaded.gameSpeed != settings.gameSpeed) {
+                if (timer != null) {
+                    timer.setDelay(reloaded.gameSpeed);
+                }
+                if (activeLoop != null) {
+                    activeLoop.setTickMillis(reloaded.gameSpeed);
+                }
+                if (simulationLoop != null) {
+                    simulationLoop.setTickMillis(reloaded.gameSpeed);
+                }
+            }
+            if (reloaded.warpIndex != settings.warpIndex) {
+                applyWarp(reloaded.warpFactor(), reloaded.gameSpeed);
+            }
+            settings = reloaded;
+        });
     }
+
     // 繼續遊戲的方法
     public void resumeGame() {
         paused = false;
-        timer.start();
-    }
-
-    // 隨機生成食物
-    public void newFood() {
-        /// 檢查新生成的食物位置是否與蛇的身體重疊。如果重疊，就重新生成食物，直到找到一個空白的位置。
-        boolean foodOnSnake = true;
-        while (foodOnSnake) {
-            int foodX = random.nextInt((int) (SCREEN_WIDTH / UNIT_SIZE)) * UNIT_SIZE;
-            int foodY = random.nextInt((int) (SCREEN_HEIGHT / UNIT_SIZE)) * UNIT_SIZE;
-            food = new Point(foodX, foodY);
-
-            foodOnSnake = false;
-            // 檢查食物是否在蛇的身體上
-            for (Point segment : snakeBody) {
-                if (segment.equals(food)) {
-                    foodOnSnake = true;
-                    break;
-                }
-            }
+        if (timer != null && simulationLoop == null) {
+            timer.start();
         }
     }
 
     // 覆寫 JPanel 的 paintComponent 方法來繪製遊戲內容
     @Override
     public void paintComponent(Graphics g) {
+        // 主動繪圖模式下畫面由遊戲執行緒繪製
+        if (activeLoop != null) {
+            return;
+        }
+        long start = System.nanoTime();
+        RenderFrame frame = frames.latest();
         super.paintComponent(g);
-        draw(g);
+        draw(g, frame);
+        recordPaint(g, start);
+    }
+
+    // 記錄繪圖時間，並在最上層畫出效能面板 (遊戲刻的統計由推進遊戲的執行緒結算)
+    private void recordPaint(Graphics g, long start) {
+        metrics.recordPaint(start, System.nanoTime());
+        metrics.drawOverlay(g, 10, 10);
+    }
+
+    // 主動繪圖模式的一幀：畫出最新的遊戲刻，並讓蛇頭依 alpha (0~1) 從上一格平滑移到目前這一格
+    void renderActive(Graphics g, double alpha) {
+        long start = System.nanoTime();
+        RenderFrame frame = frames.latest();
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        draw(g, frame);
+        if (frame.isRunning() && !frame.arena && !viewport && boardValid
+                && boardPreviousHead >= 0 && boardPreviousHead != boardHead) {
+            int cols = frame.cols;
+            int fromX = (boardPreviousHead % cols) * UNIT_SIZE;
+            int fromY = (boardPreviousHead / cols) * UNIT_SIZE;
+            int toX = (boardHead % cols) * UNIT_SIZE;
+            int toY = (boardHead / cols) * UNIT_SIZE;
+            int x = getOffsetX() + toX;
+            int y = getOffsetY() + toY;
+            // 目前這一格先還原成背景，再畫出插值位置的蛇頭
+            g.drawImage(backgroundLayer, x, y, x + UNIT_SIZE, y + UNIT_SIZE, toX, toY, toX + UNIT_SIZE, toY + UNIT_SIZE, null);
+            g.drawImage(getSprites().head, getOffsetX() + fromX + (int) ((toX - fromX) * alpha),
+                    getOffsetY() + fromY + (int) ((toY - fromY) * alpha), null);
+        }
+        recordPaint(g, start);
     }
 
-    // 繪製遊戲畫面
+    // 繪製最新的快照 (給基準測試與沒有顯示的面板使用)
     public void draw(Graphics g) {
-        Point offset = getOffset();
-        int offsetX = offset.x;
-        int offsetY = offset.y;
+        draw(g, frames.latest());
+    }
 
-        // 畫網格線 (選用)
-        g.setColor(new Color(10, 10, 10, 30));
+    // 繪製遊戲畫面：背景與蛇都已經畫在棋盤圖層上，這裡只需要讓圖層跟上快照再貼上
+    private void draw(Graphics g, RenderFrame frame) {
+        int offsetX = getOffsetX();
+        int offsetY = getOffsetY();
 
-        /// 計算水平和垂直網格線的數量
-        /// 如果畫面尺寸不能被 UNIT_SIZE 整除，則多畫一條線
-        int horizontalLines = GameSettings.screenHeight / UNIT_SIZE;
-        if (GameSettings.screenHeight % UNIT_SIZE != 0) {
-            horizontalLines++;
+        if (frame.arena) {
+            drawArena(g, frame, offsetX, offsetY);
+            return;
         }
-        int verticalLines = GameSettings.screenWidth / UNIT_SIZE;
-        if (GameSettings.screenWidth % UNIT_SIZE != 0) {
-            verticalLines++;
+        // 如果遊戲正在運行，畫蛇和食物
+        if (frame.isRunning()) {
+            syncBoard(frame);
+            if (viewport) {
+                drawViewport(g, frame, offsetX, offsetY);
+                if (minimapVisible) {
+                    drawMinimap(g, frame, offsetX, offsetY);
+                }
+                return;
+            }
+            g.drawImage(boardLayer, offsetX, offsetY, null);
+        } else {
+            g.drawImage(getBackgroundLayer(), offsetX, offsetY, null);
+            // 遊戲結束畫面
+            gameOver(g, frame, offsetX, offsetY, this.getWidth());
         }
+    }
 
-        // 畫垂直網格線
-        for (int i = 0; i <= verticalLines; i++) { // 修正迴圈條件，確保從 0 到最後一條線都畫
-            g.drawLine(offsetX + i * UNIT_SIZE, offsetY, offsetX + i * UNIT_SIZE, offsetY + GameSettings.screenHeight);
+    // 鏡頭模式：只畫出鏡頭範圍內的格子，繪圖時間只與畫面大小有關，與棋盤大小無關
+    // 逐列掃描，把相鄰的蛇身合併成一個矩形
+    private void drawViewport(Graphics g, RenderFrame frame, int offsetX, int offsetY) {
+        g.drawImage(getBackgroundLayer(), offsetX, offsetY, null);
+        int cols = frame.cols;
+        int headCell = frame.getHeadCell();
+        centerCamera(headCell, cols, frame.rows);
+        int viewCols = Math.min(SCREEN_WIDTH / UNIT_SIZE, cols);
+        int viewRows = Math.min(SCREEN_HEIGHT / UNIT_SIZE, frame.rows);
+        SpriteCache sprites = getSprites();
+        g.setColor(SpriteCache.BODY_COLOR);
+        for (int y = 0; y < viewRows; y++) {
+            int row = cameraY + y;
+            int x = 0;
+            while (x < viewCols) {
+                if (!boardCells.isOccupied(cameraX + x, row)) {
+                    x++;
+                    continue;
+                }
+                int runStart = x;
+                while (x < viewCols && boardCells.isOccupied(cameraX + x, row)) {
+                    x++;
+                }
+                g.fillRect(offsetX + runStart * UNIT_SIZE, offsetY + y * UNIT_SIZE, (x - runStart) * UNIT_SIZE, UNIT_SIZE);
+            }
         }
-        // 畫水平網格線
-        for (int i = 0; i <= horizontalLines; i++) { // 修正迴圈條件
-            g.drawLine(offsetX, offsetY + i * UNIT_SIZE, offsetX + GameSettings.screenWidth, offsetY + i * UNIT_SIZE);
+        g.drawImage(sprites.head, offsetX + (headCell % cols - cameraX) * UNIT_SIZE,
+                offsetY + (headCell / cols - cameraY) * UNIT_SIZE, null);
+        int foodX = frame.foodCell % cols - cameraX;
+        int foodY = frame.foodCell / cols - cameraY;
+        if (frame.foodCell >= 0 && foodX >= 0 && foodX < viewCols && foodY >= 0 && foodY < viewRows) {
+            g.drawImage(sprites.food, offsetX + foodX * UNIT_SIZE, offsetY + foodY * UNIT_SIZE, null);
         }
+    }
 
-        // 如果遊戲正在運行，畫蛇和食物
-        if (running) {
-            // 畫食物
+    // 讓鏡頭以指定的格子為中心，並限制在棋盤範圍內
+    private void centerCamera(int cell, int cols, int rows) {
+        cameraX = cameraStart(cell % cols, cols, SCREEN_WIDTH / UNIT_SIZE);
+        cameraY = cameraStart(cell / cols, rows, SCREEN_HEIGHT / UNIT_SIZE);
+    }
+
+    // 鏡頭左上角的座標：讓 position 置中，並限制在 0 到 size - view 之間
+    private static int cameraStart(int position, int size, int view) {
+        return Math.max(0, Math.min(position - view / 2, size - view));
+    }
+
+    // 小地圖：貼上快取的縮小影像，再畫出食物與目前鏡頭的範圍
+    private void drawMinimap(Graphics g, RenderFrame frame, int offsetX, int offsetY) {
+        if (!minimapValid) {
+            rebuildMinimap(frame);
+        }
+        int scale = Math.max(1, MINIMAP_SIZE / Math.max(minimapImage.getWidth(), minimapImage.getHeight()));
+        int width = minimapImage.getWidth() * scale;
+        int height = minimapImage.getHeight() * scale;
+        int x = offsetX + SCREEN_WIDTH - width - 10;
+        int y = offsetY + 10;
+        g.drawImage(minimapImage, x, y, width, height, null);
+        if (frame.foodCell >= 0) {
             g.setColor(Color.red);
-            g.fillOval(offsetX + food.x, offsetY + food.y, UNIT_SIZE, UNIT_SIZE);
+            g.fillRect(x + frame.foodCell % frame.cols / minimapBlock * scale - 1,
+                    y + frame.foodCell / frame.cols / minimapBlock * scale - 1, 3, 3);
+        }
+        g.setColor(MINIMAP_BORDER_COLOR);
+        g.drawRect(x - 1, y - 1, width + 1, height + 1);
+        g.drawRect(x + cameraX / minimapBlock * scale, y + cameraY / minimapBlock * scale,
+                Math.max(1, SCREEN_WIDTH / UNIT_SIZE / minimapBlock * scale), Math.max(1, SCREEN_HEIGHT / UNIT_SIZE / minimapBlock * scale));
+    }
 
-            // 畫蛇
-            for (int i = 0; i < snakeBody.size(); i++) {
-                if (i == 0) {
-                    g.setColor(Color.green);
-                } else {
-                    g.setColor(new Color(45, 180, 0));
+    // 完整重建小地圖 (第一次顯示、新遊戲或一次前進多刻時)
+    private void rebuildMinimap(RenderFrame frame) {
+        int cols = frame.cols;
+        int rows = frame.rows;
+        if (minimapImage == null) {
+            minimapBlock = (Math.max(cols, rows) + MINIMAP_SIZE - 1) / MINIMAP_SIZE;
+            int width = (cols + minimapBlock - 1) / minimapBlock;
+            int height = (rows + minimapBlock - 1) / minimapBlock;
+            minimapImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            minimapCounts = new int[width * height];
+        }
+        Arrays.fill(minimapCounts, 0);
+        for (int i = 0; i < boardLength; i++) {
+            minimapCounts[minimapPixel(bodySegment(i))]++;
+        }
+        for (int pixel = 0; pixel < minimapCounts.length; pixel++) {
+            setMinimapPixel(pixel);
+        }
+        minimapValid = true;
+    }
+
+    // 前進一刻後只更新蛇頭與 (被釋放的) 蛇尾所在的像素
+    private void updateMinimap(int previousTail, int headCell, boolean tailReleased) {
+        if (!(tailReleased && previousTail == headCell)) {
+            if (tailReleased) {
+                int pixel = minimapPixel(previousTail);
+                minimapCounts[pixel]--;
+                setMinimapPixel(pixel);
+            }
+            int pixel = minimapPixel(headCell);
+            minimapCounts[pixel]++;
+            setMinimapPixel(pixel);
+        }
+    }
+
+    private int minimapPixel(int cell) {
+        int cols = BOARD_COLS;
+        return (cell / cols / minimapBlock) * minimapImage.getWidth() + (cell % cols) / minimapBlock;
+    }
+
+    private void setMinimapPixel(int pixel) {
+        int rgb = minimapCounts[pixel] > 0 ? SpriteCache.BODY_COLOR.getRGB() : 0xFFFFFF;
+        minimapImage.setRGB(pixel % minimapImage.getWidth(), pixel / minimapImage.getWidth(), rgb);
+    }
+
+    // 繪製競技場：快照中只有鏡頭範圍內的格子 (棋盤大於畫面時鏡頭跟著第一條存活的蛇)
+    // 逐列掃描，把相鄰且同色的格子合併成一個矩形，只在顏色改變時才切換顏色
+    private void drawArena(Graphics g, RenderFrame frame, int offsetX, int offsetY) {
+        g.drawImage(getBackgroundLayer(), offsetX, offsetY, null);
+        int viewCols = frame.viewCols;
+        int viewRows = frame.viewRows;
+        int[] window = frame.window;
+        int current = -1;
+        for (int y = 0; y < viewRows; y++) {
+            int rowStart = y * viewCols;
+            int x = 0;
+            while (x < viewCols) {
+                int owner = window[rowStart + x];
+                if (owner < 0) {
+                    x++;
+                    continue;
                 }
-                g.fillRect(offsetX + snakeBody.get(i).x, offsetY + snakeBody.get(i).y, UNIT_SIZE, UNIT_SIZE);
+                int color = owner % ARENA_BODY_COLORS.length;
+                int runStart = x;
+                while (x < viewCols) {
+                    int next = window[rowStart + x];
+                    if (next < 0 || next % ARENA_BODY_COLORS.length != color) {
+                        break;
+                    }
+                    x++;
+                }
+                if (color != current) {
+                    g.setColor(ARENA_BODY_COLORS[color]);
+                    current = color;
+                }
+                g.fillRect(offsetX + runStart * UNIT_SIZE, offsetY + y * UNIT_SIZE, (x - runStart) * UNIT_SIZE, UNIT_SIZE);
+            }
+        }
+        // 蛇頭與食物
+        SpriteCache sprites = getSprites();
+        int inset = UNIT_SIZE / 4;
+        for (int i = 0; i < frame.headCount; i++) {
+            int cell = frame.heads[i];
+            g.drawImage(sprites.arenaHead, offsetX + cell % viewCols * UNIT_SIZE + inset,
+                    offsetY + cell / viewCols * UNIT_SIZE + inset, null);
+        }
+        for (int cell = 0; cell < window.length; cell++) {
+            if (window[cell] == RenderFrame.ARENA_FOOD) {
+                g.drawImage(sprites.food, offsetX + cell % viewCols * UNIT_SIZE, offsetY + cell / viewCols * UNIT_SIZE, null);
             }
-        } else {
-            // 遊戲結束畫面
-            gameOver(g, offsetX, offsetY, this.getWidth());
         }
     }
 
-    // 處理遊戲迴圈的事件
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        if (running && !paused) {
-            // 自動判斷食物方向並轉向
-            makeDecision();
-            // 呼叫移動方法
-            move();
-            // 呼叫碰撞偵測方法
-            checkCollisions();
-            // 呼叫吃食物方法
-            checkFood();
-        }
-        // 重新繪製畫面
-        repaint();
+    // 靜態的網格背景，依棋盤大小預先畫好一次
+    private BufferedImage getBackgroundLayer() {
+        if (backgroundLayer == null) {
+            /// 計算水平和垂直網格線的數量
+            /// 如果畫面尺寸不能被 UNIT_SIZE 整除，則多畫一條線
+            int horizontalLines = SCREEN_HEIGHT / UNIT_SIZE;
+            if (SCREEN_HEIGHT % UNIT_SIZE != 0) {
+                horizontalLines++;
+            }
+            int verticalLines = SCREEN_WIDTH / UNIT_SIZE;
+            if (SCREEN_WIDTH % UNIT_SIZE != 0) {
+                verticalLines++;
+            }
+
+            backgroundLayer = createLayer(SCREEN_WIDTH + 1, SCREEN_HEIGHT + 1);
+            Graphics g = backgroundLayer.getGraphics();
+            g.setColor(Color.white);
+            g.fillRect(0, 0, backgroundLayer.getWidth(), backgroundLayer.getHeight());
+            // 畫網格線 (選用)
+            g.setColor(GRID_COLOR);
+            // 畫垂直網格線
+            for (int i = 0; i <= verticalLines; i++) { // 修正迴圈條件，確保從 0 到最後一條線都畫
+                g.drawLine(i * UNIT_SIZE, 0, i * UNIT_SIZE, SCREEN_HEIGHT);
+            }
+            // 畫水平網格線
+            for (int i = 0; i <= horizontalLines; i++) { // 修正迴圈條件
+                g.drawLine(0, i * UNIT_SIZE, SCREEN_WIDTH, i * UNIT_SIZE);
+            }
+            g.dispose();
+        }
+        return backgroundLayer;
     }
-    // 以下為下一步要實作的方法
-    public void move() {
-        // 這裡寫蛇的移動邏輯
-        // 暫時讓它動一下
-        // 每次移動都將蛇的身體往後移一格
-        for(int i = snakeBody.size() - 1; i > 0; i--) {
-            snakeBody.get(i).setLocation(snakeBody.get(i-1));
+
+    // 盡量使用與螢幕相容的影像格式，讓 Java2D 可以加速貼圖
+    private BufferedImage createLayer(int width, int height) {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        if (config != null) {
+            return config.createCompatibleImage(width, height);
         }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
 
-        // 根據當前方向移動蛇頭
-        switch (direction) {
-            case 'U': // 上
-                snakeBody.get(0).y = snakeBody.get(0).y - UNIT_SIZE;
-                break;
-            case 'D': // 下
-                snakeBody.get(0).y = snakeBody.get(0).y + UNIT_SIZE;
-                break;
-            case 'L': // 左
-                snakeBody.get(0).x = snakeBody.get(0).x - UNIT_SIZE;
-                break;
-            case 'R': // 右
-                snakeBody.get(0).x = snakeBody.get(0).x + UNIT_SIZE;
-                break;
+    // 預先畫好的圖塊 (第一次繪圖時依 UNIT_SIZE 建立；面板顯示後改用與螢幕相容的圖塊)
+    private SpriteCache getSprites() {
+        if (sprites == null || sprites.config != getGraphicsConfiguration()) {
+            sprites = SpriteCache.get(getGraphicsConfiguration(), UNIT_SIZE);
         }
+        return sprites;
     }
 
+    // 讓繪圖端的棋盤 (位元棋盤、棋盤圖層與小地圖) 跟上快照：
+    // 同一代的快照只帶來上次同步之後的新蛇頭，依序推入並讓出蛇尾，只更新有變動的格子；
+    // 快照帶著完整的蛇身時 (新遊戲、跳轉、落後整條蛇以上) 完整重建
+    private void syncBoard(RenderFrame frame) {
+        boolean sameGeneration = boardValid && frame.generation == boardGeneration;
+        if (sameGeneration && frame.ticks == boardTicks) {
+            return;
+        }
+        boolean delta = frame.baseTicks >= 0;
+        if (delta && !(sameGeneration && frame.baseTicks <= boardTicks && frame.ticks > boardTicks)) {
+            // 模擬端只會以繪圖端已經畫到的遊戲刻為基準，這裡只是保險
+            return;
+        }
+        if (boardCells == null) {
+            boardCells = new Bitboard(frame.cols, frame.rows);
+        }
+        boolean incremental = delta && frame.ticks == boardTicks + 1;
+        int headCell = frame.getHeadCell();
+        if (delta) {
+            // 先讓出蛇尾，再由舊到新推入蛇頭 (蛇頭可能正好移進讓出的格子)
+            int pushed = (int) (frame.ticks - boardTicks);
+            int released = boardLength + pushed - frame.length;
+            for (int i = 0; i < released; i++) {
+                boardCells.clear(bodySegment(--boardLength));
+            }
+            for (int i = pushed - 1; i >= 0; i--) {
+                pushBody(frame.cells[i]);
+                boardCells.set(frame.cells[i]);
+            }
+            if (incremental) {
+                if (!viewport) {
+                    updateBoardLayer(frame);
+                }
+                if (minimapValid && minimapVisible) {
+                    updateMinimap(boardTail, headCell, released > 0);
+                } else {
+                    minimapValid = false;
+                }
+            } else {
+                if (!viewport) {
+                    rebuildBoardLayer(frame);
+                }
+                minimapValid = false;
+            }
+        } else {
+            boardCells.load(frame.cells, frame.length);
+            loadBody(frame.cells, frame.length);
+            if (!viewport) {
+                rebuildBoardLayer(frame);
+            }
+            minimapValid = false;
+        }
+        boardPreviousHead = incremental ? boardHead : -1;
+        boardValid = true;
+        boardGeneration = frame.generation;
+        boardTicks = frame.ticks;
+        boardLength = frame.length;
+        boardHead = headCell;
+        boardTail = frame.getTailCell();
+        boardFood = frame.foodCell;
+        syncedTicks = boardTicks;
+        syncedGeneration = boardGeneration;
+    }
 
-    // 檢查蛇頭是否吃到食物(重疊)，增加蛇的長度
-    public void checkFood() {
-        if (snakeBody.get(0).equals(food)) {
-            // 取得蛇尾的位置
-            Point lastSegment = snakeBody.get(snakeBody.size() - 1);
-            /// 根據蛇的移動方向，計算新的身體節點應該位於哪裡,
-            /// 這是一種簡單的處理方式，讓新身體出現在看得見的地方，
-            /// 並在下一幀移動時自然地接上蛇尾。
-            int newX = lastSegment.x;
-            int newY = lastSegment.y;
+    // 繪圖端蛇身的第 i 節 (0 為蛇頭)
+    private int bodySegment(int i) {
+        return boardBody[(boardBodyHead - i) & (boardBody.length - 1)];
+    }
+
+    // 推入新的蛇頭，容量不足時加倍 (依節的順序搬到新陣列)
+    private void pushBody(int cell) {
+        if (boardLength == boardBody.length) {
+            int[] grown = new int[boardBody.length * 2];
+            for (int i = 0; i < boardLength; i++) {
+                grown[boardLength - 1 - i] = bodySegment(i);
+            }
+            boardBody = grown;
+            boardBodyHead = boardLength - 1;
+        }
+        boardBodyHead = (boardBodyHead + 1) & (boardBody.length - 1);
+        boardBody[boardBodyHead] = cell;
+        boardLength++;
+    }
 
-            // 新增一個新的身體節點，其位置與蛇尾相同
-            snakeBody.add(new Point(newX, newY));
-            // 生成新的食物
-            newFood();
+    // 以完整的蛇身 (蛇頭在前) 取代繪圖端的蛇身
+    private void loadBody(int[] cells, int length) {
+        if (boardBody.length < length) {
+            boardBody = new int[Integer.highestOneBit(length - 1) << 1];
         }
+        for (int i = 0; i < length; i++) {
+            boardBody[length - 1 - i] = cells[i];
+        }
+        boardBodyHead = length - 1;
+        boardLength = length;
     }
 
-    // 碰撞檢查
-    public void checkCollisions() {
-        // 1. 檢查蛇頭是否撞到自己
-        // 從蛇身體的第三個節點 (索引 2) 開始檢查
-        for (int i = 2; i < snakeBody.size(); i++) {
-            if (snakeBody.get(0).equals(snakeBody.get(i))) {
-                running = false;
+    // 完整重畫棋盤圖層
+    // 蛇身逐列掃描位元棋盤，把相鄰的格子合併成一個矩形，整條蛇只需要一次 setColor
+    private void rebuildBoardLayer(RenderFrame frame) {
+        BufferedImage background = getBackgroundLayer();
+        if (boardLayer == null) {
+            boardLayer = createLayer(background.getWidth(), background.getHeight());
+        }
+        SpriteCache sprites = getSprites();
+        Graphics g = boardLayer.getGraphics();
+        g.drawImage(background, 0, 0, null);
+
+        // 畫食物
+        int cols = frame.cols;
+        if (frame.foodCell >= 0) {
+            g.drawImage(sprites.food, frame.foodCell % cols * UNIT_SIZE, frame.foodCell / cols * UNIT_SIZE, null);
+        }
+        // 畫蛇
+        g.setColor(SpriteCache.BODY_COLOR);
+        for (int y = 0; y < frame.rows; y++) {
+            int x = 0;
+            while (x < cols) {
+                if (!boardCells.isOccupied(x, y)) {
+                    x++;
+                    continue;
+                }
+                int runStart = x;
+                while (x < cols && boardCells.isOccupied(x, y)) {
+                    x++;
+                }
+                g.fillRect(runStart * UNIT_SIZE, y * UNIT_SIZE, (x - runStart) * UNIT_SIZE, UNIT_SIZE);
             }
         }
+        int headCell = frame.getHeadCell();
+        g.drawImage(sprites.head, headCell % cols * UNIT_SIZE, headCell / cols * UNIT_SIZE, null);
+        g.dispose();
+    }
+
+    // 只前進了一刻時，只有舊蛇頭、舊蛇尾、舊食物、新蛇頭與新食物這幾格可能改變，只重畫這幾格
+    private void updateBoardLayer(RenderFrame frame) {
+        Graphics g = boardLayer.getGraphics();
+        refreshCell(g, frame, boardTail);
+        refreshCell(g, frame, boardHead);
+        refreshCell(g, frame, boardFood);
+        refreshCell(g, frame, frame.getHeadCell());
+        refreshCell(g, frame, frame.foodCell);
+        g.dispose();
+    }
 
-        // 2. 檢查蛇頭是否撞牆
-        if (snakeBody.get(0).x < 0 || snakeBody.get(0).x >= SCREEN_WIDTH ||
-                snakeBody.get(0).y < 0 || snakeBody.get(0).y >= SCREEN_HEIGHT) {
-            running = false;
+    // 依快照重畫棋盤圖層中的一格
+    private void refreshCell(Graphics g, RenderFrame frame, int cell) {
+        if (cell < 0) {
+            return;
         }
+        int x = (cell % frame.cols) * UNIT_SIZE;
+        int y = (cell / frame.cols) * UNIT_SIZE;
+        // 只還原這一格 (格子左邊與上邊的網格線屬於這一格，右邊與下邊的屬於相鄰的格子)
+        g.drawImage(backgroundLayer, x, y, x + UNIT_SIZE, y + UNIT_SIZE, x, y, x + UNIT_SIZE, y + UNIT_SIZE, null);
+        if (boardCells.isOccupied(cell)) {
+            g.drawImage(cell == frame.getHeadCell() ? getSprites().head : getSprites().body, x, y, null);
+        } else if (cell == frame.foodCell) {
+            g.drawImage(getSprites().food, x, y, null);
+        }
+    }
 
-        // 如果遊戲結束，停止 Timer
-        if (!running) {
-            timer.stop();
+    // 要求重繪一格 (可以在任何執行緒呼叫；Swing 會把同一次繪圖前的區域合併)
+    private void repaintCell(int cell) {
+        if (cell < 0) {
+            return;
         }
+        int cols = engine.getCols();
+        repaint(getOffsetX() + (cell % cols) * UNIT_SIZE, getOffsetY() + (cell / cols) * UNIT_SIZE, UNIT_SIZE + 1, UNIT_SIZE + 1);
     }
 
-    // 遊戲結束處理，加入偏移量參數
-    public void gameOver(Graphics g, int offsetX, int offsetY, int panelWidth) {
-        // 停止主要的遊戲迴圈
-        if (timer != null && timer.isRunning()) {
-            timer.stop();
+    // 食物所在的格子 (沒有食物時為 -1)
+    private int foodCell() {
+        return engine.getFoodX() < 0 ? -1 : engine.getFoodY() * engine.getCols() + engine.getFoodX();
+    }
+
+    // 把目前的遊戲狀態寫入快照並發布給繪圖端 (只在推進遊戲的執行緒上呼叫)
+    private void publishFrame() {
+        RenderFrame frame = frames.back();
+        if (arena != null) {
+            int cols = arena.getCols();
+            int rows = arena.getRows();
+            int x = 0;
+            int y = 0;
+            if (viewport) {
+                for (int i = 0; i < arena.getSnakeCount(); i++) {
+                    if (arena.isAlive(i)) {
+                        int cell = arena.getHeadCell(i);
+                        x = cameraStart(cell % cols, cols, SCREEN_WIDTH / UNIT_SIZE);
+                        y = cameraStart(cell / cols, rows, SCREEN_HEIGHT / UNIT_SIZE);
+                        break;
+                    }
+                }
+            }
+            frame.copyFrom(arena, generation, x, y,
+                    Math.min(SCREEN_WIDTH / UNIT_SIZE, cols), Math.min(SCREEN_HEIGHT / UNIT_SIZE, rows));
+        } else {
+            // 先讀代數再讀刻數 (與繪圖端寫入的順序相反)，讀到的刻數不會超過繪圖端在這一代實際畫到的
+            long paintedTicks = syncedGeneration == generation ? syncedTicks : -1;
+            frame.copyFrom(engine, generation, paintedTicks);
         }
+        frames.publish();
+        lastPublishNanos = System.nanoTime();
+        frameStale = false;
+    }
 
-        // 顯示分數
-        g.setColor(Color.red);
-        g.setFont(new java.awt.Font("Ink Free", java.awt.Font.BOLD, 40));
-        java.awt.FontMetrics metrics1 = getFontMetrics(g.getFont());
-        int score = snakeBody.size() - 3; // 初始長度為 3
-        g.drawString("Score: " + score, (panelWidth - metrics1.stringWidth("Score: " + score)) / 2, offsetY + g.getFont().getSize());
-
-        // 顯示遊戲結束訊息
-        g.setColor(Color.red);
-        g.setFont(new java.awt.Font("Ink Free", java.awt.Font.BOLD, 75));
-        java.awt.FontMetrics metrics2 = getFontMetrics(g.getFont());
-        g.drawString("Game Over", (panelWidth - metrics2.stringWidth("Game Over")) / 2, offsetY + GameSettings.screenHeight / 2);
-
-        // 讓程式延遲五秒後重新開始
-        // 我們需要使用 Swing 的 Timer 來避免阻塞事件處理線程
-        Timer restartTimer = new Timer(5000, new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                // 重新開始遊戲
-                initGame();
-                // 停止這個計時器
-                ((Timer)e.getSource()).stop();
+    // 遊戲狀態被整個替換或被外部直接改變時 (新遊戲、重播跳轉、基準測試)，發布新一代的快照，繪圖端會完整重畫
+    public void invalidateBoard() {
+        generation++;
+        publishFrame();
+    }
+
+    // 處理遊戲迴圈的事件
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        // 競技場每一刻都自行要求重繪
+        boolean wasRunning = arena == null && engine.isRunning();
+        if (!tick() && wasRunning) {
+            // 遊戲剛結束，重新繪製畫面 (之後等待重新開始時不需要重繪)
+            repaint();
+        }
+    }
+
+    // 推進一個遊戲刻並更新棋盤圖層，回傳遊戲是否仍在進行 (Timer 與主動繪圖模式共用)
+    boolean tick() {
+        if (replay != null && seekTarget >= 0) {
+            // 重播跳轉：從種子重新模擬到目標刻，圖層在下一次更新時完整重畫
+            replay.seek(engine, seekTarget);
+            seekTarget = -1;
+            restartAt = 0;
+            invalidateBoard();
+            if (repaintsEachTick()) {
+                repaint();
             }
-        });
-        restartTimer.setRepeats(false); // 只執行一次
-        restartTimer.start();
-    }
-
-    // 自動化移動(朝向食物)
-    public void makeDecision() {
-        // 獲取蛇頭和食物的座標
-        Point head = snakeBody.get(0);
-        int headX = head.x;
-        int headY = head.y;
-        int foodX = food.x;
-        int foodY = food.y;
-
-        // 優先朝著食物方向移動
-        if (headX < foodX && direction != 'L') {
-            if (!isCollision(headX + UNIT_SIZE, headY)) {
-                direction = 'R';
-                return;
+        }
+        if (restartRequested) {
+            restartRequested = false;
+            initGame();
+        }
+        // 每秒結算一次遊戲刻的統計 (遊戲暫停或等待重新開始時也照常結算)
+        metrics.maybeRoll(System.nanoTime(), arena != null ? arena.getTotalLength() : engine.getLength());
+        if (arena != null) {
+            // 競技場沒有結束畫面：死亡的蛇會自行重生，每一刻都重畫整個棋盤
+            if (paused) {
+                return false;
             }
+            arena.step();
+            publishFrame();
+            if (repaintsEachTick()) {
+                repaint();
+            }
+            return true;
         }
-        if (headX > foodX && direction != 'R') {
-            if (!isCollision(headX - UNIT_SIZE, headY)) {
-                direction = 'L';
-                return;
+        if (paused) {
+            if (frameStale) {
+                publishFrame();
             }
+            return false;
         }
-        if (headY < foodY && direction != 'U') {
-            if (!isCollision(headX, headY + UNIT_SIZE)) {
-                direction = 'D';
-                return;
+        if (!engine.isRunning()) {
+            // 遊戲結束後由同一個遊戲迴圈等待，時間到就地重新開始 (每次死亡只排定一次)
+            if (restartAt != 0 && System.nanoTime() - restartAt >= 0) {
+                initGame();
+                if (repaintsEachTick()) {
+                    repaint();
+                }
             }
+            return false;
         }
-        if (headY > foodY && direction != 'D') {
-            if (!isCollision(headX, headY - UNIT_SIZE)) {
-                direction = 'U';
-                return;
+        AutopilotStrategy strategy = pendingStrategy;
+        if (strategy != null) {
+            pendingStrategy = null;
+            engine.setStrategy(strategy);
+        }
+        // 由引擎執行一個遊戲刻：決策、移動、碰撞偵測、吃食物，再發布這一刻的快照
+        long previousTicks = engine.getTicks();
+        int previousTail = engine.getTailCell();
+        int previousHead = engine.getHeadCell();
+        int previousFood = foodCell();
+        if (advanceEngine()) {
+            if (!warping || (System.nanoTime() - lastPublishNanos >= WARP_PUBLISH_NANOS && !frames.hasUnconsumed())) {
+                publishFrame();
+            } else {
+                frameStale = true;
+            }
+            if (repaintsEachTick()) {
+                if (viewport || engine.getTicks() != previousTicks + 1) {
+                    // 鏡頭每一刻都跟著蛇頭移動 (或一次前進了多刻)，重畫整個畫面
+                    repaint();
+                } else {
+                    // 只重繪有變動的格子
+                    repaintCell(previousTail);
+                    repaintCell(previousHead);
+                    repaintCell(previousFood);
+                    repaintCell(engine.getHeadCell());
+                    repaintCell(foodCell());
+                }
+            }
+            if (metrics.isOverlayVisible() && repaintsEachTick()) {
+                repaint(10, 10, PerfMetrics.OVERLAY_WIDTH, PerfMetrics.OVERLAY_HEIGHT);
             }
+            return true;
         }
-
-        // 如果所有通往食物的路都被擋住了，隨機選擇一個不會碰撞的方向
-        if (!isCollision(headX + UNIT_SIZE, headY) && direction != 'L') {
-            direction = 'R';
-        } else if (!isCollision(headX - UNIT_SIZE, headY) && direction != 'R') {
-            direction = 'L';
-        } else if (!isCollision(headX, headY + UNIT_SIZE) && direction != 'U') {
-            direction = 'D';
-        } else if (!isCollision(headX, headY - UNIT_SIZE) && direction != 'D') {
-            direction = 'U';
+        // 如果遊戲結束，保存這場遊戲的重播與分數紀錄，並排定重新開始
+        // (重播在遊戲中已經逐刻寫入，這裡只在目前的執行緒補寫剩下的緩衝與刻數；分數紀錄交給背景執行緒寫入)
+        if (replay == null) {
+            recorder.finish(true);
+            if (scoreLog != null) {
+                scoreLog.record(gameSeed, AutopilotStrategies.indexOf(engine.getStrategy().getName()),
+                        engine.getCols(), engine.getRows(), engine.getScore(), engine.getTicks(), engine.getDeathCause());
+            }
         }
+        publishFrame();
+        restartAt = System.nanoTime() + restartDelayNanos;
+        return false;
     }
 
-    // 實作一個檢查碰撞的方法
-    public boolean isCollision(int nextX, int nextY) {
-        // 檢查是否撞牆
-        if (nextX < 0 || nextX >= SCREEN_WIDTH || nextY < 0 || nextY >= SCREEN_HEIGHT) {
-            return true;
+    // 是否由 Swing Timer 逐刻推進並逐刻要求重繪 (主動繪圖與加速模式的畫面由各自的迴圈以固定的更新率繪製)
+    private boolean repaintsEachTick() {
+        return activeLoop == null && simulationLoop == null;
+    }
+
+    // 自動駕駛模式前進一刻；重播模式依播放速度套用錄製的方向前進數刻
+    private boolean advanceEngine() {
+        if (replay == null) {
+            return engine.step();
         }
-        // 檢查是否撞到自己
-        for (int i = snakeBody.size() - 1; i > 0; i--) {
-            if (nextX == snakeBody.get(i).x && nextY == snakeBody.get(i).y) {
+        for (int i = 0; i < replaySpeed; i++) {
+            int next = (int) engine.getTicks();
+            if (next >= replay.getTicks()) {
+                // 錄製在遊戲結束前就中斷了 (例如重新套用設定)，停在最後一刻
                 return true;
             }
+            if (!engine.step(replay.direction(next))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 重播跳轉到指定的刻 (由遊戲迴圈在下一刻處理，避免與主動繪圖的執行緒衝突)
+    private void seekReplay(int tick) {
+        seekTarget = Math.max(0, Math.min(tick, replay.getTicks()));
+    }
+
+    // 遊戲結束處理，加入偏移量參數
+    // 只負責繪製 (每次重繪都會呼叫)，重新開始由遊戲迴圈在 tick() 中排定
+    // 字型與字型度量都已快取，分數文字只在分數改變時重新組合與量測
+    public void gameOver(Graphics g, int offsetX, int offsetY, int panelWidth) {
+        gameOver(g, frames.latest(), offsetX, offsetY, panelWidth);
+    }
+
+    private void gameOver(Graphics g, RenderFrame frame, int offsetX, int offsetY, int panelWidth) {
+        SpriteCache sprites = getSprites();
+        // 顯示分數
+        int score = frame.score;
+        if (score != scoreTextScore) {
+            scoreText = "Score: " + score;
+            scoreTextWidth = sprites.scoreMetrics.stringWidth(scoreText);
+            scoreTextScore = score;
+        }
+        g.setColor(SpriteCache.FOOD_COLOR);
+        g.setFont(SpriteCache.SCORE_FONT);
+        g.drawString(scoreText, (panelWidth - scoreTextWidth) / 2, offsetY + SpriteCache.SCORE_FONT.getSize());
+
+        // 顯示遊戲結束訊息 (蛇佔滿整個棋盤時顯示勝利)
+        boolean won = frame.state == RenderFrame.STATE_WON;
+        g.setFont(SpriteCache.MESSAGE_FONT);
+        g.drawString(won ? SpriteCache.WIN_MESSAGE : SpriteCache.GAME_OVER_MESSAGE,
+                (panelWidth - (won ? sprites.winWidth : sprites.gameOverWidth)) / 2, offsetY + SCREEN_HEIGHT / 2);
+
+        // 訊息下方顯示排行榜 (只讀取分數紀錄最新發布的摘要)
+        if (scoreLog != null) {
+            drawLeaderboard(g, sprites, scoreLog.getSummary(), panelWidth, offsetY + SCREEN_HEIGHT / 2 + 50);
+        }
+    }
+
+    // 使用分數紀錄 (在 EDT 上呼叫)：每場結束的遊戲寫入紀錄檔，遊戲結束畫面顯示排行榜，紀錄更新時重繪
+    void setScoreLog(ScoreLog scoreLog) {
+        this.scoreLog = scoreLog;
+        scoreLog.setChangeListener(this::repaint);
+    }
+
+    // 排行榜：統計一行，之後每個名次一行 (分數、策略、棋盤大小、刻數與死因)
+    private void drawLeaderboard(Graphics g, SpriteCache sprites, ScoreLog.Summary summary, int panelWidth, int top) {
+        if (summary != leaderboardSummary) {
+            leaderboardLines = leaderboardLines(summary);
+            leaderboardWidth = 0;
+            for (String line : leaderboardLines) {
+                leaderboardWidth = Math.max(leaderboardWidth, sprites.leaderboardMetrics.stringWidth(line));
+            }
+            leaderboardSummary = summary;
+        }
+        g.setColor(SpriteCache.LEADERBOARD_COLOR);
+        g.setFont(SpriteCache.LEADERBOARD_FONT);
+        int x = (panelWidth - leaderboardWidth) / 2;
+        int lineHeight = sprites.leaderboardMetrics.getHeight();
+        for (int i = 0; i < leaderboardLines.length; i++) {
+            g.drawString(leaderboardLines[i], x, top + i * lineHeight);
         }
-        return false;
+    }
+
+    private static String[] leaderboardLines(ScoreLog.Summary summary) {
+        if (!summary.loaded) {
+            return new String[]{"Loading scores..."};
+        }
+        String[] lines = new String[1 + summary.getTopCount()];
+        lines[0] = String.format("%,d games  avg %.1f  last %d avg %.1f  wins %,d",
+                summary.games, summary.averageScore, ScoreLog.RECENT_GAMES, summary.recentAverage, summary.wins);
+        for (int i = 0; i < summary.getTopCount(); i++) {
+            ScoreLog.Entry entry = summary.getTop(i);
+            lines[i + 1] = String.format("%2d. %6d  %-11s %9s %,11d ticks  %s", i + 1, entry.score,
+                    entry.strategyName(), entry.cols + "x" + entry.rows, entry.ticks, entry.causeName());
+        }
+        return lines;
     }
 
     // (選用) 鍵盤事件處理，雖然是自動化，但可以留著用於測試
@@ -368,6 +1073,28 @@ public class GamePanel extends JPanel implements ActionListener  { // 實現 Act
                 // 退出程式
                 System.exit(0);
             }
+            // 按下 P 鍵切換效能面板
+            if (e.getKeyCode() == KeyEvent.VK_P) {
+                metrics.toggleOverlay();
+                repaint();
+            }
+            // 按下 M 鍵切換小地圖 (棋盤大於畫面時)
+            if (e.getKeyCode() == KeyEvent.VK_M && viewport) {
+                minimapVisible = !minimapVisible;
+                repaint();
+            }
+            // 重播模式：左右鍵跳轉 100 刻，上下鍵加倍或減半播放速度
+            // (引擎屬於推進遊戲的執行緒，目前的刻數從最新的快照讀取)
+            if (replay != null) {
+                int current = seekTarget >= 0 ? seekTarget : (int) frames.latest().ticks;
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_RIGHT: seekReplay(current + REPLAY_SEEK_TICKS); break;
+                    case KeyEvent.VK_LEFT: seekReplay(current - REPLAY_SEEK_TICKS); break;
+                    case KeyEvent.VK_UP: replaySpeed = Math.min(replaySpeed * 2, MAX_REPLAY_SPEED); break;
+                    case KeyEvent.VK_DOWN: replaySpeed = Math.max(replaySpeed / 2, 1); break;
+                    default: break;
+                }
+            }
             if (e.getKeyCode() == KeyEvent.VK_O) {
                 if (!paused) {
                     pauseGame();
@@ -379,17 +1106,19 @@ public class GamePanel extends JPanel implements ActionListener  { // 實現 Act
     }
 
     // 置中用偏移量計算
-    private Point getOffset() {
-        int panelWidth = this.getWidth();
-        int panelHeight = this.getHeight();
-        int offsetX = (panelWidth - GameSettings.screenWidth) / 2;
-        int offsetY = (panelHeight - GameSettings.screenHeight) / 2;
-        return new Point(offsetX, offsetY);
+    private int getOffsetX() {
+        return (this.getWidth() - SCREEN_WIDTH) / 2;
+    }
+
+    private int getOffsetY() {
+        return (this.getHeight() - SCREEN_HEIGHT) / 2;
     }
 
     private void pauseGame() {
         paused = true;
-        timer.stop();
+        if (timer != null) {
+            timer.stop();
+        }
         repaint();
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,31 @@
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
+// 遊戲設定：目前的設定是一份不可變的快照 (Snapshot)，透過 volatile 參考發布，
+// 讀取端一次取得整份設定，不會看到只更新了一半的速度與畫面大小
+// 寫入設定檔交給背景執行緒 (先寫暫存檔再以原子的改名取代)，UI 執行緒不會等待磁碟
+// 設定檔被外部修改時，監看執行緒會重新讀取並通知正在執行的遊戲
 public class GameSettings {
 
-    private static final String SETTINGS_FILE = "game_settings.properties";
-
-    public static int gameSpeed;
-    public static int screenWidth;
-    public static int screenHeight;
+    private static final Path SETTINGS_FILE = Path.of("game_settings.properties");
+    private static final Path TEMP_FILE = Path.of("game_settings.properties.tmp");
+    // 偵測到設定檔變動後等待一下再讀取，讓編輯器寫完整個檔案
+    private static final long RELOAD_SETTLE_MILLIS = 100;
 
     // 提供數個預設的速度選項 (單位：毫秒)
     public static final int[] GAME_SPEEDS = {150, 100, 75, 50, 25};
@@ -25,41 +41,271 @@ public class GameSettings {
             {1920, 1080}
     };
 
-    // 新增變數來儲存選項的索引，而不是直接儲存數值
-    public static int speedIndex = 2; // 預設速度為第 3 個選項 (75ms)
-    public static int sizeIndex = 0;  // 預設畫面為第 1 個選項 (800x600)
+    // 畫面更新模式：Swing Timer (每一刻重繪一次) 或主動繪圖 (專屬遊戲執行緒 + BufferStrategy)
+    public static final String[] RENDER_MODES = {"Timer", "Active"};
+    // 遊戲模式：單一條蛇，或許多自動駕駛的蛇共用一個棋盤的競技場
+    public static final String[] GAME_MODES = {"Classic", "Arena"};
+    // 競技場模式中每條蛇分配到的格數 (決定蛇的數量)
+    public static final int ARENA_UNITS_PER_SNAKE = 64;
+    // 競技場模式的蛇數上限 (大棋盤時)
+    public static final int ARENA_MAX_SNAKES = 500;
+
+    // 棋盤大小 (格數)：第一個選項依畫面大小決定，其餘與畫面無關，大於畫面時以鏡頭跟著蛇頭
+    public static final int[][] BOARD_SIZES = {
+            {0, 0},
+            {100, 100},
+            {250, 250},
+            {500, 500},
+            {1000, 1000},
+            {2000, 2000}
+    };
+
+    // 加速倍率：每個遊戲刻間隔推進的刻數，0 表示全速 (兩次畫面更新之間盡量推進)
+    // 1x 以外的倍率由模擬執行緒推進，畫面只以螢幕的更新率重繪
+    public static final int[] WARP_FACTORS = {1, 10, 100, 0};
+
+    // 預設設定：速度為第 3 個選項 (75ms)、畫面為第 1 個選項 (800x600)，其餘為第一個選項
+    public static final Snapshot DEFAULTS = new Snapshot(2, 0, 0, 0, false, 0, 0, 0);
+
+    // 目前的設定
+    private static volatile Snapshot current = DEFAULTS;
+    // 設定檔被外部修改並重新讀取後要通知的對象 (目前的遊戲視窗)
+    private static volatile Consumer<Snapshot> reloadListener;
+
+    // 背景寫入：只保留最新一份待寫入的設定，連續儲存時中間的版本會被略過
+    private static final AtomicReference<Snapshot> pendingSave = new AtomicReference<>();
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "settings-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 設定檔最後一次已知的內容 (這個程式寫入的，或已經讀取過的外部修改)；寫檔與監看端讀檔互斥，
+    // 監看端讀到這份內容時表示檔案沒有被外部修改 (例如是自己剛寫入的檔案)
+    private static final Object FILE_LOCK = new Object();
+    private static Snapshot fileContents;
+
+    public static Snapshot current() {
+        return current;
+    }
+
+    // 發布新的設定 (不寫入檔案，例如重播或基準測試暫時改變畫面大小)
+    public static void publish(Snapshot settings) {
+        current = settings;
+    }
+
+    public static void setReloadListener(Consumer<Snapshot> listener) {
+        reloadListener = listener;
+    }
 
-    // 讀取設定
+    // 讀取設定 (啟動時呼叫)
     public static void loadSettings() {
-        Properties props = new Properties();
-        try (FileInputStream fis = new FileInputStream(SETTINGS_FILE)) {
-            props.load(fis);
-            speedIndex = Integer.parseInt(props.getProperty("GameSpeed", "2"));
-            sizeIndex = Integer.parseInt(props.getProperty("ScreenSize", "0"));
-        } catch (IOException | NumberFormatException e) {
+        try {
+            synchronized (FILE_LOCK) {
+                current = read();
+                fileContents = current;
+            }
+        } catch (IOException | IllegalArgumentException e) {
             System.err.println("Can't find the setting file, will use default setting.");
         }
-        // 根據索引值更新實際的參數
-        updateGameParameters();
     }
 
-    // 寫入設定
-    public static void saveSettings() {
+    // 發布並儲存設定：立即生效，檔案由背景執行緒寫入
+    public static void saveSettings(Snapshot settings) {
+        current = settings;
+        if (pendingSave.getAndSet(settings) == null) {
+            writer.execute(GameSettings::writePending);
+        }
+    }
+
+    // 背景執行緒：寫入最新的待寫入設定
+    private static void writePending() {
+        Snapshot settings = pendingSave.getAndSet(null);
+        if (settings == null) {
+            return;
+        }
+        Properties props = settings.toProperties();
+        synchronized (FILE_LOCK) {
+            try {
+                // 先寫完暫存檔，再以原子的改名取代設定檔，讀取端不會讀到寫到一半的檔案
+                try (OutputStream out = Files.newOutputStream(TEMP_FILE)) {
+                    props.store(out, "Game Settings");
+                }
+                Files.move(TEMP_FILE, SETTINGS_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                fileContents = settings;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static Snapshot read() throws IOException {
         Properties props = new Properties();
-        // 儲存索引值
-        props.setProperty("GameSpeed", String.valueOf(speedIndex));
-        props.setProperty("ScreenSize", String.valueOf(sizeIndex));
+        try (InputStream in = Files.newInputStream(SETTINGS_FILE)) {
+            props.load(in);
+        }
+        return Snapshot.fromProperties(props);
+    }
 
-        try (FileOutputStream fos = new FileOutputStream(SETTINGS_FILE)) {
-            props.store(fos, "Game Settings");
+    // 開始監看設定檔所在的資料夾，設定檔被外部修改時重新讀取並通知遊戲
+    public static void startWatching() {
+        Path directory = SETTINGS_FILE.toAbsolutePath().getParent();
+        WatchService watcher;
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
         } catch (IOException e) {
-            e.printStackTrace();
+            System.err.println("Can't watch the setting file: " + e.getMessage());
+            return;
+        }
+        Thread thread = new Thread(() -> watch(watcher), "settings-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void watch(WatchService watcher) {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (SETTINGS_FILE.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    Thread.sleep(RELOAD_SETTLE_MILLIS);
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 結束監看
         }
     }
-    // 根據索引更新參數，以便在讀取和變更時使用
-    public static void updateGameParameters() {
-        gameSpeed = GAME_SPEEDS[speedIndex];
-        screenWidth = SCREEN_SIZES[sizeIndex][0];
-        screenHeight = SCREEN_SIZES[sizeIndex][1];
+
+    // 重新讀取設定檔；只套用外部的修改，與目前的設定比較並不夠：連續套用設定時，
+    // 檔案可能還是前一次寫入的內容，而目前的設定已經是下一份
+    private static void reload() {
+        Snapshot settings;
+        synchronized (FILE_LOCK) {
+            try {
+                settings = read();
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Ignoring invalid setting file: " + e.getMessage());
+                return;
+            }
+            if (fileContents != null && settings.sameAs(fileContents)) {
+                return;
+            }
+            fileContents = settings;
+        }
+        if (settings.sameAs(current)) {
+            return;
+        }
+        current = settings;
+        Consumer<Snapshot> listener = reloadListener;
+        if (listener != null) {
+            listener.accept(settings);
+        }
+    }
+
+    // 一份不可變的設定：選項的索引，以及由索引換算出的速度與畫面大小
+    public static final class Snapshot {
+        public final int speedIndex;
+        public final int sizeIndex;
+        public final int autopilotIndex; // 索引對應 AutopilotStrategies.NAMES
+        public final int renderModeIndex;
+        public final boolean metricsExport; // 是否把每秒的效能統計寫入 perf_metrics.csv
+        public final int gameModeIndex;
+        public final int boardSizeIndex;
+        public final int warpIndex; // 索引對應 WARP_FACTORS
+        // 實際的參數
+        public final int gameSpeed;
+        public final int screenWidth;
+        public final int screenHeight;
+
+        public Snapshot(int speedIndex, int sizeIndex, int autopilotIndex, int renderModeIndex,
+                        boolean metricsExport, int gameModeIndex, int boardSizeIndex, int warpIndex) {
+            this(speedIndex, sizeIndex, autopilotIndex, renderModeIndex, metricsExport, gameModeIndex, boardSizeIndex,
+                    warpIndex, GAME_SPEEDS[speedIndex], SCREEN_SIZES[sizeIndex][0], SCREEN_SIZES[sizeIndex][1]);
+        }
+
+        private Snapshot(int speedIndex, int sizeIndex, int autopilotIndex, int renderModeIndex,
+                         boolean metricsExport, int gameModeIndex, int boardSizeIndex, int warpIndex,
+                         int gameSpeed, int screenWidth, int screenHeight) {
+            this.speedIndex = speedIndex;
+            this.sizeIndex = sizeIndex;
+            this.autopilotIndex = checkIndex(autopilotIndex, AutopilotStrategies.NAMES.length);
+            this.renderModeIndex = checkIndex(renderModeIndex, RENDER_MODES.length);
+            this.metricsExport = metricsExport;
+            this.gameModeIndex = checkIndex(gameModeIndex, GAME_MODES.length);
+            this.boardSizeIndex = checkIndex(boardSizeIndex, BOARD_SIZES.length);
+            this.warpIndex = checkIndex(warpIndex, WARP_FACTORS.length);
+            this.gameSpeed = gameSpeed;
+            this.screenWidth = screenWidth;
+            this.screenHeight = screenHeight;
+        }
+
+        // 複製一份並改變畫面大小 (不對應任何選項，只用於重播與基準測試)
+        public Snapshot withScreenSize(int width, int height) {
+            return new Snapshot(speedIndex, sizeIndex, autopilotIndex, renderModeIndex, metricsExport,
+                    gameModeIndex, boardSizeIndex, warpIndex, gameSpeed, width, height);
+        }
+
+        // 複製一份並改變遊戲速度 (毫秒)
+        public Snapshot withGameSpeed(int millis) {
+            return new Snapshot(speedIndex, sizeIndex, autopilotIndex, renderModeIndex, metricsExport,
+                    gameModeIndex, boardSizeIndex, warpIndex, millis, screenWidth, screenHeight);
+        }
+
+        // 每個遊戲刻間隔推進的刻數 (0 表示全速)
+        public int warpFactor() {
+            return WARP_FACTORS[warpIndex];
+        }
+
+        // 與另一份設定是否需要重建視窗才能套用 (速度、加速倍率與自動駕駛策略可以直接套用)
+        public boolean needsRestart(Snapshot other) {
+            return screenWidth != other.screenWidth || screenHeight != other.screenHeight
+                    || renderModeIndex != other.renderModeIndex || gameModeIndex != other.gameModeIndex
+                    || boardSizeIndex != other.boardSizeIndex || metricsExport != other.metricsExport;
+        }
+
+        boolean sameAs(Snapshot other) {
+            return !needsRestart(other) && gameSpeed == other.gameSpeed && autopilotIndex == other.autopilotIndex
+                    && speedIndex == other.speedIndex && sizeIndex == other.sizeIndex && warpIndex == other.warpIndex;
+        }
+
+        Properties toProperties() {
+            Properties props = new Properties();
+            // 儲存索引值
+            props.setProperty("GameSpeed", String.valueOf(speedIndex));
+            props.setProperty("ScreenSize", String.valueOf(sizeIndex));
+            props.setProperty("Autopilot", String.valueOf(autopilotIndex));
+            props.setProperty("RenderMode", String.valueOf(renderModeIndex));
+            props.setProperty("MetricsExport", String.valueOf(metricsExport));
+            props.setProperty("GameMode", String.valueOf(gameModeIndex));
+            props.setProperty("BoardSize", String.valueOf(boardSizeIndex));
+            props.setProperty("Warp", String.valueOf(warpIndex));
+            return props;
+        }
+
+        static Snapshot fromProperties(Properties props) {
+            return new Snapshot(
+                    checkIndex(Integer.parseInt(props.getProperty("GameSpeed", "2")), GAME_SPEEDS.length),
+                    checkIndex(Integer.parseInt(props.getProperty("ScreenSize", "0")), SCREEN_SIZES.length),
+                    Integer.parseInt(props.getProperty("Autopilot", "0")),
+                    Integer.parseInt(props.getProperty("RenderMode", "0")),
+                    Boolean.parseBoolean(props.getProperty("MetricsExport", "false")),
+                    Integer.parseInt(props.getProperty("GameMode", "0")),
+                    Integer.parseInt(props.getProperty("BoardSize", "0")),
+                    Integer.parseInt(props.getProperty("Warp", "0")));
+        }
+
+        private static int checkIndex(int index, int length) {
+            if (index < 0 || index >= length) {
+                throw new IllegalArgumentException("Setting index out of range: " + index);
+            }
+            return index;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+// 原本的貪婪策略：優先沿著座標軸朝食物前進，被擋住時改走任一不會碰撞的方向
+public class GreedyStrategy implements AutopilotStrategy {
+
+    @Override
+    public char decide(SnakeEngine engine) {
+        return engine.greedyDirection();
+    }
+
+    @Override
+    public String getName() {
+        return "Greedy";
+    }
+
+    // 只檢查蛇頭四周的格子與食物的方向
+    @Override
+    public boolean isLocalWindowOnly() {
+        return true;
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 覆蓋棋盤的哈密頓迴路 (每一格恰好經過一次並回到起點)，依棋盤大小計算一次後快取
+// 寬或高至少一邊為偶數時可覆蓋整個棋盤；兩邊都是奇數時數學上不存在這種迴路，
+// 此時迴路經過右下角以外的所有格子，右下角 (spare) 是迴路上 spareFor 那一格的替代格：
+// 兩者都接在 spareBefore 之後、spareFor 的下一格之前，走哪一格都不會打亂蛇身沿迴路的順序
+public class HamiltonianCycle {
+
+    private static final Map<Long, HamiltonianCycle> CACHE = new ConcurrentHashMap<>();
+
+    final int cols;
+    final int rows;
+    // 迴路上的格數
+    final int length;
+    // cycle[i] 為迴路上第 i 個格子；order[cell] 為該格在迴路上的位置 (替代格與它替代的格子位置相同)
+    final int[] cycle;
+    final int[] order;
+    // 替代格、它替代的迴路格，以及兩者共同的前一格 (寬高至少一邊為偶數時都是 -1)
+    final int spare;
+    final int spareFor;
+    final int spareBefore;
+
+    // 取得指定棋盤大小的迴路 (同一大小只會計算一次，切換畫面大小時不必重算)
+    public static HamiltonianCycle forBoard(int cols, int rows) {
+        return CACHE.computeIfAbsent(((long) cols << 32) | rows, key -> new HamiltonianCycle(cols, rows));
+    }
+
+    private HamiltonianCycle(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.order = new int[cols * rows];
+        java.util.Arrays.fill(order, -1);
+
+        // 以寬度為偶數的棋盤來建構；寬為奇數、高為偶數時轉置；
+        // 兩者皆奇數時，最右邊兩行改為左右來回往上走 (右下角除外)
+        boolean transpose = cols % 2 != 0 && rows % 2 == 0;
+        boolean odd = cols % 2 != 0 && rows % 2 != 0;
+        int w = transpose ? rows : (odd ? cols - 1 : cols);
+        int h = transpose ? cols : rows;
+        this.length = odd ? cols * rows - 1 : w * h;
+        this.cycle = new int[length];
+
+        // 從 (0, 0) 出發：第 0 行往下，其餘各行在第 1 列以下上下蛇行，最後沿第 0 列走回起點
+        int x = 0;
+        int y = 0;
+        for (int i = 0; i < length; i++) {
+            int cell = transpose ? x * cols + y : y * cols + x;
+            cycle[i] = cell;
+            order[cell] = i;
+            if (y == 0 && x > 0) {
+                x--;
+            } else if (odd && x >= w - 1) {
+                // 從倒數第二行的最底下往上：每兩列先往右再往上、往左再往上，最後在第 0 列接回
+                boolean rightRow = (h - 1 - y) % 2 == 1;
+                if (x == w - 1) {
+                    if (rightRow) {
+                        x++;
+                    } else {
+                        y--;
+                    }
+                } else if (rightRow) {
+                    y--;
+                } else {
+                    x--;
+                }
+            } else if (x == 0) {
+                if (y < h - 1) {
+                    y++;
+                } else {
+                    x++;
+                }
+            } else if (x % 2 == 1) {
+                if (y > 1 || x == w - 1) {
+                    y--;
+                } else {
+                    x++;
+                }
+            } else if (y < h - 1) {
+                y++;
+            } else {
+                x++;
+            }
+        }
+
+        if (odd) {
+            // 右下角可以取代它左上方的格子：兩者都接在最下面一列倒數第二格之後，也都接到右邊一行倒數第二格
+            spare = (rows - 1) * cols + cols - 1;
+            spareFor = (rows - 2) * cols + cols - 2;
+            spareBefore = (rows - 1) * cols + cols - 2;
+            order[spare] = order[spareFor];
+        } else {
+            spare = -1;
+            spareFor = -1;
+            spareBefore = -1;
+        }
+    }
+
+    // 沿著迴路從 from 走到 to 需要的步數
+    int distance(int from, int to) {
+        int d = order[to] - order[from];
+        return d < 0 ? d + length : d;
+    }
+
+    // 迴路上 cell 的下一格
+    int next(int cell) {
+        int i = order[cell] + 1;
+        return cycle[i == length ? 0 : i];
+    }
+
+    boolean contains(int cell) {
+        return order[cell] >= 0;
+    }
+}
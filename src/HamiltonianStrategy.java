@@ -0,0 +1,108 @@
+// 哈密頓迴路策略：沿著預先計算好的迴路前進，保證不會撞到自己並能填滿棋盤；
+// 蛇還不長時，在不會超過蛇尾的前提下走捷徑，縮短吃到食物所需的步數
+public class HamiltonianStrategy implements AutopilotStrategy {
+
+    // 蛇身超過迴路的這個比例後就不再走捷徑，只沿迴路前進
+    private static final double SHORTCUT_LIMIT = 0.5;
+    // 走捷徑時與蛇尾保持的額外距離 (為吃到食物後長出的節數預留空間)
+    private static final int TAIL_MARGIN = 3;
+
+    private HamiltonianCycle cycle;
+    // 蛇身從蛇尾到蛇頭沿迴路前進的總步數：小於一圈時蛇身依迴路順序排列 (已對齊)，捷徑的安全性以此為前提
+    // 每一刻只依蛇頭與蛇尾的移動增減 (O(1))，只有在新遊戲或跳過了刻數時才逐節重新計算
+    private long span;
+    private long spanTicks = -1;
+    private int spanHead;
+    private int spanTail;
+    // 蛇身未對齊時 (遊戲剛開始，初始的蛇身與迴路方向相反) 改用的策略
+    private final PathfindingStrategy fallback = new PathfindingStrategy();
+
+    @Override
+    public char decide(SnakeEngine engine) {
+        if (cycle == null || cycle.cols != engine.getCols() || cycle.rows != engine.getRows()) {
+            cycle = HamiltonianCycle.forBoard(engine.getCols(), engine.getRows());
+            spanTicks = -1;
+        }
+        updateSpan(engine);
+
+        int headCell = engine.getHeadCell();
+        int foodCell = engine.getFoodY() * engine.getCols() + engine.getFoodX();
+        if (span >= cycle.length) {
+            return fallback.decide(engine);
+        }
+        // 食物在替代格上時，先以它的前一格為目標 (落在它替代的格子上吃不到食物)
+        int target = foodCell == cycle.spare ? cycle.spareBefore : foodCell;
+
+        // 預設沿著迴路走下一格；在替代格的前一格時，迴路格被蛇身佔用或食物在替代格上就改走替代格
+        int best = cycle.next(headCell);
+        if (headCell == cycle.spareBefore && engine.getOccupancy(cycle.spare) == 0
+                && (engine.getOccupancy(best) != 0 || foodCell == cycle.spare)) {
+            best = cycle.spare;
+        }
+        int length = engine.getLength() + engine.getPendingGrowth();
+        if (length < cycle.length * SHORTCUT_LIMIT) {
+            // 捷徑：在不超過蛇尾的範圍內，挑選沿迴路離食物最近的相鄰空格
+            int tailCell = engine.getTailCell();
+            int room = cycle.distance(headCell, tailCell) - engine.getPendingGrowth() - TAIL_MARGIN;
+            int bestToFood = cycle.distance(best, target);
+            int x = engine.getHeadX();
+            int y = engine.getHeadY();
+            for (int d = 0; d < 4; d++) {
+                int nx = x + SnakeEngine.DX[d];
+                int ny = y + SnakeEngine.DY[d];
+                if (nx < 0 || nx >= engine.getCols() || ny < 0 || ny >= engine.getRows()) {
+                    continue;
+                }
+                int cell = ny * engine.getCols() + nx;
+                if (engine.getOccupancy(cell) != 0) {
+                    continue;
+                }
+                int skip = cycle.distance(headCell, cell);
+                int toFood = cycle.distance(cell, target);
+                if (skip < room && skip <= cycle.distance(headCell, target) && toFood < bestToFood) {
+                    best = cell;
+                    bestToFood = toFood;
+                }
+            }
+        }
+        return directionTo(engine, headCell, best);
+    }
+
+    // 更新蛇身沿迴路的總步數：上一次決策後恰好前進一刻時，加上蛇頭前進的步數、減去蛇尾前進的步數
+    // (蛇尾每刻最多前進一節)；否則 (新遊戲、重播跳轉、換了策略) 從蛇尾到蛇頭逐節重新計算
+    private void updateSpan(SnakeEngine engine) {
+        int headCell = engine.getHeadCell();
+        int tailCell = engine.getTailCell();
+        if (engine.getTicks() != 0 && engine.getTicks() == spanTicks && headCell == spanHead && tailCell == spanTail) {
+            // 同一刻再次決策 (例如基準測試)，蛇身沒有改變
+            return;
+        }
+        if (engine.getTicks() != 0 && engine.getTicks() == spanTicks + 1) {
+            span += cycle.distance(spanHead, headCell) - (tailCell == spanTail ? 0 : cycle.distance(spanTail, tailCell));
+        } else {
+            span = 0;
+            for (int i = engine.getLength() - 1; i > 0; i--) {
+                span += cycle.distance(engine.getSegmentCell(i), engine.getSegmentCell(i - 1));
+            }
+        }
+        spanTicks = engine.getTicks();
+        spanHead = headCell;
+        spanTail = tailCell;
+    }
+
+    private char directionTo(SnakeEngine engine, int from, int to) {
+        int cols = engine.getCols();
+        if (to == from - cols) {
+            return 'U';
+        }
+        if (to == from + cols) {
+            return 'D';
+        }
+        return to == from - 1 ? 'L' : 'R';
+    }
+
+    @Override
+    public String getName() {
+        return "Hamiltonian";
+    }
+}
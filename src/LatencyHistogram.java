@@ -0,0 +1,80 @@
+import java.util.Arrays;
+
+// 類似 HdrHistogram 的對數-線性延遲直方圖：每個 2 的次方區間再細分 32 格 (約 3% 精度)，
+// 記錄一次只需幾個整數運算，不產生任何物件
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // 32
+    // 小於 64 的值直接對應到自己的格子
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    // 可記錄到 2^40 奈秒 (約 18 分鐘)，更大的值放在最後一格
+    private static final int MAX_SHIFT = 40 - SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[LINEAR_LIMIT + MAX_SHIFT * SUB_BUCKETS];
+    private long count;
+    private long max;
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[indexOf(value)]++;
+        count++;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        if (shift > MAX_SHIFT) {
+            return LINEAR_LIMIT + MAX_SHIFT * SUB_BUCKETS - 1;
+        }
+        int top = (int) (value >>> shift); // 32 ~ 63
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    // 格子代表的數值 (取區間中點)
+    private static long valueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long top = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return (top << shift) + (1L << (shift - 1));
+    }
+
+    // 百分位數 (0 ~ 100)，沒有資料時回傳 0
+    public long percentile(double percent) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percent / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(valueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        max = 0;
+    }
+}
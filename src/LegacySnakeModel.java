@@ -0,0 +1,140 @@
+import java.awt.Point;
+import java.util.ArrayList;
+
+// 原本 GamePanel 以 ArrayList<Point> 實作的蛇身與規則 (以格子為單位)
+// 只保留作為效能比較與行為驗證的參考，遊戲本身不使用
+public class LegacySnakeModel {
+
+    final int COLS;
+    final int ROWS;
+
+    // 蛇的身體座標
+    ArrayList<Point> snakeBody = new ArrayList<>();
+    // 食物的座標
+    Point food = new Point();
+    // 遊戲狀態
+    boolean running = true;
+    // 蛇的移動方向
+    char direction = 'R';
+
+    public LegacySnakeModel(int cols, int rows) {
+        this.COLS = cols;
+        this.ROWS = rows;
+    }
+
+    // 以引擎目前的蛇身建立相同的狀態
+    public void copyFrom(SnakeEngine engine) {
+        snakeBody.clear();
+        for (int i = 0; i < engine.getLength(); i++) {
+            snakeBody.add(new Point(engine.getSegmentX(i), engine.getSegmentY(i)));
+        }
+        food.setLocation(engine.getFoodX(), engine.getFoodY());
+        direction = engine.getDirection();
+        running = engine.isRunning();
+    }
+
+    public void move() {
+        // 每次移動都將蛇的身體往後移一格
+        for (int i = snakeBody.size() - 1; i > 0; i--) {
+            snakeBody.get(i).setLocation(snakeBody.get(i - 1));
+        }
+
+        // 根據當前方向移動蛇頭
+        switch (direction) {
+            case 'U':
+                snakeBody.get(0).y--;
+                break;
+            case 'D':
+                snakeBody.get(0).y++;
+                break;
+            case 'L':
+                snakeBody.get(0).x--;
+                break;
+            case 'R':
+                snakeBody.get(0).x++;
+                break;
+        }
+    }
+
+    // 吃到食物時回傳 true (食物位置由呼叫端決定)
+    public boolean checkFood() {
+        if (snakeBody.get(0).equals(food)) {
+            // 新增一個新的身體節點，其位置與蛇尾相同
+            Point lastSegment = snakeBody.get(snakeBody.size() - 1);
+            snakeBody.add(new Point(lastSegment.x, lastSegment.y));
+            return true;
+        }
+        return false;
+    }
+
+    public void checkCollisions() {
+        // 1. 檢查蛇頭是否撞到自己
+        for (int i = 2; i < snakeBody.size(); i++) {
+            if (snakeBody.get(0).equals(snakeBody.get(i))) {
+                running = false;
+            }
+        }
+
+        // 2. 檢查蛇頭是否撞牆
+        if (snakeBody.get(0).x < 0 || snakeBody.get(0).x >= COLS ||
+                snakeBody.get(0).y < 0 || snakeBody.get(0).y >= ROWS) {
+            running = false;
+        }
+    }
+
+    public void makeDecision() {
+        Point head = snakeBody.get(0);
+        int headX = head.x;
+        int headY = head.y;
+
+        // 優先朝著食物方向移動
+        if (headX < food.x && direction != 'L') {
+            if (!isCollision(headX + 1, headY)) {
+                direction = 'R';
+                return;
+            }
+        }
+        if (headX > food.x && direction != 'R') {
+            if (!isCollision(headX - 1, headY)) {
+                direction = 'L';
+                return;
+            }
+        }
+        if (headY < food.y && direction != 'U') {
+            if (!isCollision(headX, headY + 1)) {
+                direction = 'D';
+                return;
+            }
+        }
+        if (headY > food.y && direction != 'D') {
+            if (!isCollision(headX, headY - 1)) {
+                direction = 'U';
+                return;
+            }
+        }
+
+        if (!isCollision(headX + 1, headY) && direction != 'L') {
+            direction = 'R';
+        } else if (!isCollision(headX - 1, headY) && direction != 'R') {
+            direction = 'L';
+        } else if (!isCollision(headX, headY + 1) && direction != 'U') {
+            direction = 'D';
+        } else if (!isCollision(headX, headY - 1) && direction != 'D') {
+            direction = 'U';
+        }
+    }
+
+    public boolean isCollision(int nextX, int nextY) {
+        // 檢查是否撞牆
+        if (nextX < 0 || nextX >= COLS || nextY < 0 || nextY >= ROWS) {
+            return true;
+        }
+        // 檢查是否撞到自己
+        for (int i = snakeBody.size() - 1; i > 0; i--) {
+            if (nextX == snakeBody.get(i).x && nextY == snakeBody.get(i).y) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,182 @@
+// 貪婪 + 前瞻策略：先照原本的貪婪決策選出想走的方向，再以洪水填充 (flood fill) 檢查走進去之後
+// 能到達的空間是否容得下整條蛇，或是否還追得到自己的蛇尾，不安全時改走其他候選方向
+// 避免原本只檢查下一格的貪婪決策鑽進死路，在棋盤幾乎全空時就把自己困死
+// 填充用「世代戳記」的 visited 與預先配置的佇列，每一刻不清除也不配置任何物件；
+// 證明空間足夠 (或追到蛇尾) 就提早結束，因此每個候選方向最多只拜訪約「蛇長」個格子
+public class LookaheadStrategy implements AutopilotStrategy {
+
+    // 填充緩衝區，依棋盤大小配置一次
+    private int cols;
+    private int rows;
+    private int[] queue = new int[0];
+    private int[] visited = new int[0]; // 該格最後一次被拜訪時的世代
+    private int generation;
+
+    // 最近一次 fill() 是否碰到了蛇尾
+    private boolean tailReached;
+
+    // 前瞻時間統計 (每一刻)
+    private long searchCount;
+    private long totalSearchNanos;
+    private long maxSearchNanos;
+
+    @Override
+    public char decide(SnakeEngine engine) {
+        long start = System.nanoTime();
+        char decision = plan(engine);
+        long elapsed = System.nanoTime() - start;
+        searchCount++;
+        totalSearchNanos += elapsed;
+        if (elapsed > maxSearchNanos) {
+            maxSearchNanos = elapsed;
+        }
+        return decision;
+    }
+
+    private char plan(SnakeEngine engine) {
+        ensureCapacity(engine);
+        int headX = engine.getHeadX();
+        int headY = engine.getHeadY();
+        char reverse = SnakeEngine.opposite(engine.getDirection());
+
+        // 1. 貪婪決策想走的方向，安全就直接採用
+        char preferred = engine.greedyDirection();
+        int preferredIndex = SnakeEngine.directionIndex(preferred);
+        int preferredArea = -1;
+        if (preferred != reverse && !engine.isCollision(headX + SnakeEngine.DX[preferredIndex], headY + SnakeEngine.DY[preferredIndex])) {
+            preferredArea = fill(engine, preferredIndex);
+            if (isSafe(engine, preferredArea, preferredIndex)) {
+                return preferred;
+            }
+        }
+
+        // 2. 評估其餘最多三個候選方向：優先選安全且離食物更近的，其次任一安全的，
+        //    都不安全時選能到達最大空間的 (盡量活久一點)
+        int foodDistance = Math.abs(engine.getFoodX() - headX) + Math.abs(engine.getFoodY() - headY);
+        int bestSafe = -1;
+        boolean bestSafeCloser = false;
+        int bestArea = -1;
+        int bestAreaIndex = -1;
+        for (int d = 0; d < 4; d++) {
+            char candidate = SnakeEngine.DIRECTIONS[d];
+            int x = headX + SnakeEngine.DX[d];
+            int y = headY + SnakeEngine.DY[d];
+            if (d == preferredIndex || candidate == reverse || engine.isCollision(x, y)) {
+                continue;
+            }
+            int area = fill(engine, d);
+            if (isSafe(engine, area, d)) {
+                boolean closer = Math.abs(engine.getFoodX() - x) + Math.abs(engine.getFoodY() - y) < foodDistance;
+                if (bestSafe < 0 || (closer && !bestSafeCloser)) {
+                    bestSafe = d;
+                    bestSafeCloser = closer;
+                }
+            } else if (area > bestArea) {
+                bestArea = area;
+                bestAreaIndex = d;
+            }
+        }
+        if (bestSafe >= 0) {
+            return SnakeEngine.DIRECTIONS[bestSafe];
+        }
+        // 原本想走的方向若空間一樣大或更大，仍然照原本的決策
+        if (bestAreaIndex >= 0 && bestArea > preferredArea) {
+            return SnakeEngine.DIRECTIONS[bestAreaIndex];
+        }
+
+        // 3. 沒有其他可走的方向，照原本的決策
+        return preferred;
+    }
+
+    // 走進該方向之後是否安全：能到達的空間容得下整條蛇 (含即將長出的節數)，或追得到蛇尾
+    private boolean isSafe(SnakeEngine engine, int area, int direction) {
+        return tailReached || area >= required(engine, direction);
+    }
+
+    // 走進該方向之後需要的空間 (格數)
+    private int required(SnakeEngine engine, int direction) {
+        int next = neighbor(engine.getHeadCell(), direction);
+        int foodCell = engine.getFoodY() * cols + engine.getFoodX();
+        return engine.getLength() + engine.getPendingGrowth() + (next == foodCell ? 1 : 0);
+    }
+
+    // 從蛇頭往該方向走一步後，以 BFS 計算能到達的空格數 (含走進去的那一格)，
+    // 數到足夠的空間或碰到蛇尾就提早結束；是否碰到蛇尾記錄在 tailReached
+    private int fill(SnakeEngine engine, int direction) {
+        if (++generation == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(visited, 0);
+            generation = 1;
+        }
+        int gen = generation;
+        tailReached = false;
+
+        int start = neighbor(engine.getHeadCell(), direction);
+        int tailCell = engine.getTailCell();
+        int needed = required(engine, direction);
+        // 這一刻不吃東西也沒有待長的節數時，蛇尾會讓出來；否則要隔一格以上才算追得到
+        int foodCell = engine.getFoodY() * cols + engine.getFoodX();
+        boolean tailMoves = engine.getPendingGrowth() == 0 && start != foodCell;
+
+        int read = 0;
+        int write = 0;
+        visited[start] = gen;
+        queue[write++] = start;
+        while (read < write) {
+            int cell = queue[read++];
+            int x = cell % cols;
+            int y = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + SnakeEngine.DX[d];
+                int ny = y + SnakeEngine.DY[d];
+                if (nx < 0 || nx >= cols || ny < 0 || ny >= rows) {
+                    continue;
+                }
+                int next = ny * cols + nx;
+                if (next == tailCell && (tailMoves || cell != start)) {
+                    tailReached = true;
+                    return write;
+                }
+                if (visited[next] != gen && engine.getOccupancy(next) == 0) {
+                    visited[next] = gen;
+                    queue[write++] = next;
+                    if (write >= needed) {
+                        return write;
+                    }
+                }
+            }
+        }
+        return write;
+    }
+
+    private int neighbor(int cell, int direction) {
+        return cell + SnakeEngine.DY[direction] * cols + SnakeEngine.DX[direction];
+    }
+
+    private void ensureCapacity(SnakeEngine engine) {
+        if (cols != engine.getCols() || rows != engine.getRows()) {
+            cols = engine.getCols();
+            rows = engine.getRows();
+            queue = new int[cols * rows];
+            visited = new int[cols * rows];
+            generation = 0;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Lookahead";
+    }
+
+    public long getSearchCount() {
+        return searchCount;
+    }
+
+    // 每一刻的平均前瞻時間 (奈秒)
+    public double getAverageSearchNanos() {
+        return searchCount == 0 ? 0 : (double) totalSearchNanos / searchCount;
+    }
+
+    public long getMaxSearchNanos() {
+        return maxSearchNanos;
+    }
+}
@@ -0,0 +1,161 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// 平行批次評估器：對每個自動駕駛策略與每個畫面預設大小，用所有 CPU 核心跑大量帶種子的遊戲，
+// 彙整分數分布、平均存活刻數與吞吐量
+// 每場遊戲的種子只由 (基礎種子, 策略, 畫面大小, 場次) 決定，結果依場次存放，因此與執行緒數量無關
+// 用法: java ParallelEvaluator [每組場數] [執行緒數] [基礎種子] [策略名稱...]
+public class ParallelEvaluator {
+
+    // 每個工作單位負責的場數，固定大小讓切分方式與執行緒數量無關
+    private static final int CHUNK_SIZE = 16;
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long baseSeed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        int[] strategies;
+        if (args.length > 3) {
+            strategies = new int[args.length - 3];
+            for (int i = 3; i < args.length; i++) {
+                strategies[i - 3] = AutopilotStrategies.indexOf(args[i]);
+                if (strategies[i - 3] < 0) {
+                    System.err.println("Unknown strategy: " + args[i]);
+                    return;
+                }
+            }
+        } else {
+            strategies = new int[AutopilotStrategies.NAMES.length];
+            for (int i = 0; i < strategies.length; i++) {
+                strategies[i] = i;
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        System.out.printf("%d games per cell, %d threads, base seed %d%n", games, threads, baseSeed);
+        System.out.printf("%-12s %-7s %8s %6s %6s %6s %6s %6s %12s %12s %10s%n", "strategy", "board",
+                "mean", "p10", "p50", "p90", "max", "wins", "mean ticks", "ticks/sec", "checksum");
+        try {
+            for (int strategy : strategies) {
+                for (int size = 0; size < GameSettings.SCREEN_SIZES.length; size++) {
+                    Result result = evaluate(pool, strategy, size, games, baseSeed);
+                    result.print();
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // 評估一組 (策略, 畫面大小)
+    static Result evaluate(ForkJoinPool pool, int strategy, int sizeIndex, int games, long baseSeed) {
+        int cols = GameSettings.SCREEN_SIZES[sizeIndex][0] / 25;
+        int rows = GameSettings.SCREEN_SIZES[sizeIndex][1] / 25;
+        Result result = new Result(AutopilotStrategies.NAMES[strategy], cols, rows, games);
+
+        long start = System.nanoTime();
+        pool.invoke(new GameRange(result, strategy, sizeIndex, baseSeed, 0, games));
+        result.seconds = (System.nanoTime() - start) / 1e9;
+        return result;
+    }
+
+    // 每場遊戲的種子 (SplitMix64 混合，避免相鄰種子產生相關的亂數序列)
+    static long gameSeed(long baseSeed, int strategy, int sizeIndex, int game) {
+        long z = baseSeed + 0x9E3779B97F4A7C15L * (((long) strategy << 40) ^ ((long) sizeIndex << 32) ^ game);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // 把場次區間遞迴切半，直到不超過 CHUNK_SIZE 後在目前的工作執行緒上執行
+    private static class GameRange extends RecursiveAction {
+        private final Result result;
+        private final int strategy;
+        private final int sizeIndex;
+        private final long baseSeed;
+        private final int from;
+        private final int to;
+
+        GameRange(Result result, int strategy, int sizeIndex, long baseSeed, int from, int to) {
+            this.result = result;
+            this.strategy = strategy;
+            this.sizeIndex = sizeIndex;
+            this.baseSeed = baseSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new GameRange(result, strategy, sizeIndex, baseSeed, from, mid),
+                        new GameRange(result, strategy, sizeIndex, baseSeed, mid, to));
+                return;
+            }
+            // 每個工作單位擁有自己的引擎、亂數產生器與策略 (策略帶有搜尋緩衝區，不可共用)
+            SnakeEngine engine = new SnakeEngine(result.cols, result.rows, 0L);
+            engine.setStrategy(AutopilotStrategies.create(strategy));
+            for (int game = from; game < to; game++) {
+                engine.reset(gameSeed(baseSeed, strategy, sizeIndex, game));
+                BatchRunner.playGame(engine);
+                // 每場結果寫入自己的位置，不需要同步
+                result.scores[game] = engine.getScore();
+                result.ticks[game] = engine.getTicks();
+                result.won[game] = engine.isWon();
+            }
+        }
+    }
+
+    // 一組 (策略, 畫面大小) 的結果
+    static class Result {
+        final String strategy;
+        final int cols;
+        final int rows;
+        final int[] scores;
+        final long[] ticks;
+        final boolean[] won;
+        double seconds;
+
+        Result(String strategy, int cols, int rows, int games) {
+            this.strategy = strategy;
+            this.cols = cols;
+            this.rows = rows;
+            this.scores = new int[games];
+            this.ticks = new long[games];
+            this.won = new boolean[games];
+        }
+
+        long totalTicks() {
+            long total = 0;
+            for (long t : ticks) {
+                total += t;
+            }
+            return total;
+        }
+
+        // 依場次順序計算的雜湊，用來確認不同執行緒數量下結果完全相同
+        int checksum() {
+            return 31 * Arrays.hashCode(scores) + Arrays.hashCode(ticks);
+        }
+
+        void print() {
+            int games = scores.length;
+            int[] sorted = scores.clone();
+            Arrays.sort(sorted);
+            long scoreSum = 0;
+            int wins = 0;
+            for (int i = 0; i < games; i++) {
+                scoreSum += scores[i];
+                if (won[i]) {
+                    wins++;
+                }
+            }
+            long totalTicks = totalTicks();
+            System.out.printf("%-12s %-7s %8.2f %6d %6d %6d %6d %6d %12.1f %12.0f %10x%n", strategy, cols + "x" + rows,
+                    (double) scoreSum / games, sorted[games / 10], sorted[games / 2], sorted[games * 9 / 10],
+                    sorted[games - 1], wins, (double) totalTicks / games, totalTicks / seconds, checksum());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+// 路徑搜尋策略：以 BFS 規劃通往食物的最短安全路徑，找不到時改為跟著自己的蛇尾走
+// 所有搜尋緩衝區都預先配置並重複使用 (以「世代戳記」取代每次清除 visited)，每一刻不產生任何物件
+public class PathfindingStrategy implements AutopilotStrategy {
+
+    // 搜尋緩衝區，依棋盤大小配置一次
+    private int cols;
+    private int rows;
+    private int[] queue = new int[0];
+    private int[] visited = new int[0]; // 該格最後一次被拜訪時的世代
+    private byte[] firstStep = new byte[0]; // 從起點出發時第一步的方向索引
+    private int generation;
+
+    // 搜尋時間統計 (每一刻)
+    private long searchCount;
+    private long totalSearchNanos;
+    private long maxSearchNanos;
+
+    @Override
+    public char decide(SnakeEngine engine) {
+        long start = System.nanoTime();
+        char decision = plan(engine);
+        long elapsed = System.nanoTime() - start;
+        searchCount++;
+        totalSearchNanos += elapsed;
+        if (elapsed > maxSearchNanos) {
+            maxSearchNanos = elapsed;
+        }
+        return decision;
+    }
+
+    private char plan(SnakeEngine engine) {
+        ensureCapacity(engine);
+        int headCell = engine.getHeadCell();
+        int tailCell = engine.getTailCell();
+        int foodCell = engine.getFoodY() * cols + engine.getFoodX();
+
+        // 1. 通往食物的最短路徑，且走第一步之後仍然追得到蛇尾
+        int step = search(engine, headCell, foodCell, tailCell);
+        if (step >= 0) {
+            int next = neighbor(headCell, step);
+            // 走進即將讓出的蛇尾格時，蛇頭會緊跟著新的蛇尾，不必再檢查
+            if (next == foodCell || next == tailCell || search(engine, next, tailCell, tailCell) >= 0) {
+                return SnakeEngine.DIRECTIONS[step];
+            }
+        }
+
+        // 2. 沒有安全的路徑時，跟著自己的蛇尾走 (蛇尾會一直讓出空間)
+        step = search(engine, headCell, tailCell, tailCell);
+        if (step >= 0) {
+            return SnakeEngine.DIRECTIONS[step];
+        }
+
+        // 3. 連蛇尾都追不到，只好退回貪婪決策
+        return engine.greedyDirection();
+    }
+
+    // 從 from 以 BFS 搜尋 target，回傳第一步的方向索引，找不到時回傳 -1
+    // passable 為即將讓出的蛇尾格，即使被佔用也可以走進去
+    private int search(SnakeEngine engine, int from, int target, int passable) {
+        if (++generation == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(visited, 0);
+            generation = 1;
+        }
+        int gen = generation;
+        // 從蛇頭出發時，蛇尾格只有在這一刻會讓出 (沒有要長大) 時才能直接走進去 (與 SnakeEngine.move 先釋放蛇尾相同)
+        boolean firstStepPassable = engine.getPendingGrowth() == 0 || from != engine.getHeadCell();
+
+        int read = 0;
+        int write = 0;
+        visited[from] = gen;
+        int fromX = from % cols;
+        int fromY = from / cols;
+        // 第一層：直接展開起點的四個方向，記錄第一步
+        // 被佔用的蛇尾格最後才放進佇列，距離相同時優先走空格 (緊跟蛇尾容易繞圈而吃不到食物)
+        int tailStep = -1;
+        for (int d = 0; d < 4; d++) {
+            int x = fromX + SnakeEngine.DX[d];
+            int y = fromY + SnakeEngine.DY[d];
+            if (x < 0 || x >= cols || y < 0 || y >= rows) {
+                continue;
+            }
+            int cell = y * cols + x;
+            if (cell == passable && !firstStepPassable) {
+                continue;
+            }
+            if (cell == target) {
+                return d;
+            }
+            if (visited[cell] != gen && engine.getOccupancy(cell) == 0) {
+                visited[cell] = gen;
+                firstStep[cell] = (byte) d;
+                queue[write++] = cell;
+            } else if (cell == passable) {
+                tailStep = d;
+            }
+        }
+        if (tailStep >= 0) {
+            visited[passable] = gen;
+            firstStep[passable] = (byte) tailStep;
+            queue[write++] = passable;
+        }
+
+        while (read < write) {
+            int cell = queue[read++];
+            int x = cell % cols;
+            int y = cell / cols;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + SnakeEngine.DX[d];
+                int ny = y + SnakeEngine.DY[d];
+                if (nx < 0 || nx >= cols || ny < 0 || ny >= rows) {
+                    continue;
+                }
+                int next = ny * cols + nx;
+                if (next == target) {
+                    return firstStep[cell];
+                }
+                if (visited[next] != gen && (engine.getOccupancy(next) == 0 || next == passable)) {
+                    visited[next] = gen;
+                    firstStep[next] = firstStep[cell];
+                    queue[write++] = next;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int neighbor(int cell, int direction) {
+        return cell + SnakeEngine.DY[direction] * cols + SnakeEngine.DX[direction];
+    }
+
+    private void ensureCapacity(SnakeEngine engine) {
+        if (cols != engine.getCols() || rows != engine.getRows()) {
+            cols = engine.getCols();
+            rows = engine.getRows();
+            queue = new int[cols * rows];
+            visited = new int[cols * rows];
+            firstStep = new byte[cols * rows];
+            generation = 0;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Pathfinding";
+    }
+
+    public long getSearchCount() {
+        return searchCount;
+    }
+
+    // 每一刻的平均搜尋時間 (奈秒)
+    public double getAverageSearchNanos() {
+        return searchCount == 0 ? 0 : (double) totalSearchNanos / searchCount;
+    }
+
+    public long getMaxSearchNanos() {
+        return maxSearchNanos;
+    }
+}
@@ -0,0 +1,334 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// 效能統計：遊戲刻各階段 (決策、移動、碰撞、食物) 與繪圖的延遲直方圖、FPS、蛇長、配置速率，
+// 以及主動繪圖模式下遊戲刻的抖動 (jitter)
+// 每秒結算一次，結果顯示在畫面上的效能面板，並可寫入 CSV 檔供離線分析
+// 遊戲刻的統計 (含抖動與配置速率) 在推進遊戲的執行緒上記錄與結算，繪圖的統計在繪圖的執行緒上記錄與結算
+// (Timer 模式兩者都是 EDT，主動繪圖模式都是遊戲執行緒，加速模式分別是模擬執行緒與 EDT)
+// 兩邊每秒的結果是不可變的物件，透過 volatile 欄位交給另一邊：效能面板在繪圖端、CSV 在遊戲刻端組合兩者
+public class PerfMetrics {
+
+    public static final String CSV_FILE = "perf_metrics.csv";
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 160);
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+    // 遊戲刻端：目前這一秒的直方圖 (奈秒)
+    final LatencyHistogram tick = new LatencyHistogram();
+    final LatencyHistogram decision = new LatencyHistogram();
+    final LatencyHistogram move = new LatencyHistogram();
+    final LatencyHistogram collision = new LatencyHistogram();
+    final LatencyHistogram food = new LatencyHistogram();
+    private long tickWindowStart = System.nanoTime();
+    // 目前這一秒遊戲刻的抖動 (奈秒，只有主動繪圖模式以固定時間步長排程時才有樣本)
+    private int jitterSamples;
+    private long jitterTotal;
+    private long jitterMax;
+    // 第一次結算前還沒有基準值 (建構與記錄可能不在同一條執行緒)
+    private long allocatedAtWindowStart = -1;
+
+    // 繪圖端：目前這一秒的直方圖 (奈秒) 與幀數
+    final LatencyHistogram paint = new LatencyHistogram();
+    private long paintWindowStart = System.nanoTime();
+    private int frames;
+
+    // 兩邊上一秒的結算結果
+    private volatile TickStats tickStats = TickStats.EMPTY;
+    private volatile PaintStats paintStats = PaintStats.EMPTY;
+
+    // 效能面板的文字，每秒更新一次後畫進快取影像；每一幀只貼上這張影像，不產生任何物件
+    // (半透明的 fillRect 在軟體繪圖路徑上每次都會配置暫存記憶體，因此連背景一起快取)
+    public static final int OVERLAY_WIDTH = 270;
+    public static final int OVERLAY_HEIGHT = 96;
+    private final char[][] lines = new char[5][64];
+    private final int[] lineLengths = new int[5];
+    private final BufferedImage overlayImage = new BufferedImage(OVERLAY_WIDTH, OVERLAY_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+    // 快取影像目前顯示的結果 (任一邊發布新的結果時重畫)
+    private TickStats shownTickStats;
+    private PaintStats shownPaintStats;
+    private volatile boolean overlayVisible;
+
+    // CSV 輸出 (背景執行緒寫檔，不阻塞遊戲迴圈)
+    private ExecutorService csvWriter;
+
+    // 記錄一個遊戲刻各階段的時間點
+    public void recordTick(long start, long decided, long moved, long collided, long end) {
+        decision.record(decided - start);
+        move.record(moved - decided);
+        collision.record(collided - moved);
+        food.record(end - collided);
+        tick.record(end - start);
+    }
+
+    // 記錄一個遊戲刻比預定時間晚了多久
+    public void recordTickJitter(long nanos) {
+        jitterSamples++;
+        jitterTotal += nanos;
+        jitterMax = Math.max(jitterMax, nanos);
+    }
+
+    // 遊戲刻端：滿一秒時結算遊戲刻的統計並重置
+    public void maybeRoll(long now, int length) {
+        if (now - tickWindowStart < WINDOW_NANOS) {
+            return;
+        }
+        double seconds = (now - tickWindowStart) / 1e9;
+        long allocated = allocatedBytes();
+        TickStats stats = new TickStats(tick.percentile(50), tick.percentile(99),
+                (int) Math.round(tick.getCount() / seconds), length,
+                allocated < 0 || allocatedAtWindowStart < 0 ? -1 : (long) ((allocated - allocatedAtWindowStart) / seconds),
+                jitterSamples == 0 ? -1 : jitterTotal / jitterSamples, jitterSamples == 0 ? -1 : jitterMax);
+        tickStats = stats;
+        if (csvWriter != null) {
+            writeCsvRow(stats, paintStats);
+        }
+
+        tick.reset();
+        decision.reset();
+        move.reset();
+        collision.reset();
+        food.reset();
+        jitterSamples = 0;
+        jitterTotal = 0;
+        jitterMax = 0;
+        tickWindowStart = now;
+        allocatedAtWindowStart = allocated;
+    }
+
+    // 繪圖端：記錄一次繪圖，滿一秒時結算繪圖的統計並重置
+    public void recordPaint(long start, long end) {
+        paint.record(end - start);
+        frames++;
+        if (end - paintWindowStart < WINDOW_NANOS) {
+            return;
+        }
+        double seconds = (end - paintWindowStart) / 1e9;
+        paintStats = new PaintStats(paint.percentile(50), paint.percentile(99), (int) Math.round(frames / seconds));
+        paint.reset();
+        frames = 0;
+        paintWindowStart = end;
+    }
+
+    public void toggleOverlay() {
+        overlayVisible = !overlayVisible;
+    }
+
+    public boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    // 在左上角畫出效能面板
+    public void drawOverlay(Graphics g, int x, int y) {
+        if (!overlayVisible) {
+            return;
+        }
+        TickStats ticks = tickStats;
+        PaintStats paints = paintStats;
+        if (ticks != shownTickStats || paints != shownPaintStats) {
+            updateOverlayText(ticks, paints);
+            renderOverlayImage();
+            shownTickStats = ticks;
+            shownPaintStats = paints;
+        }
+        g.drawImage(overlayImage, x, y, null);
+    }
+
+    private void renderOverlayImage() {
+        Graphics2D g = overlayImage.createGraphics();
+        g.setComposite(java.awt.AlphaComposite.Src);
+        g.setColor(OVERLAY_BACKGROUND);
+        g.fillRect(0, 0, OVERLAY_WIDTH, OVERLAY_HEIGHT);
+        g.setComposite(java.awt.AlphaComposite.SrcOver);
+        g.setColor(Color.white);
+        g.setFont(OVERLAY_FONT);
+        for (int i = 0; i < lines.length; i++) {
+            g.drawChars(lines[i], 0, lineLengths[i], 8, 18 + i * 18);
+        }
+        g.dispose();
+    }
+
+    private void updateOverlayText(TickStats ticks, PaintStats paints) {
+        int n = 0;
+        n = append(0, n, "tick p50 ");
+        n = appendMicros(0, n, ticks.p50);
+        n = append(0, n, " p99 ");
+        n = appendMicros(0, n, ticks.p99);
+        lineLengths[0] = append(0, n, " us");
+
+        n = append(1, 0, "paint p50 ");
+        n = appendMicros(1, n, paints.p50);
+        n = append(1, n, " p99 ");
+        n = appendMicros(1, n, paints.p99);
+        lineLengths[1] = append(1, n, " us");
+
+        n = append(2, 0, "fps ");
+        n = appendLong(2, n, paints.fps);
+        n = append(2, n, "  ticks/s ");
+        n = appendLong(2, n, ticks.ticksPerSecond);
+        n = append(2, n, "  length ");
+        lineLengths[2] = appendLong(2, n, ticks.snakeLength);
+
+        n = append(3, 0, "alloc ");
+        if (ticks.allocationRate < 0) {
+            lineLengths[3] = append(3, n, "n/a");
+        } else {
+            n = appendLong(3, n, ticks.allocationRate / 1024);
+            lineLengths[3] = append(3, n, " KB/s");
+        }
+
+        n = append(4, 0, "jitter ");
+        if (ticks.averageJitter < 0) {
+            lineLengths[4] = append(4, n, "n/a");
+        } else {
+            n = append(4, n, "avg ");
+            n = appendMicros(4, n, ticks.averageJitter);
+            n = append(4, n, " max ");
+            n = appendMicros(4, n, ticks.maxJitter);
+            lineLengths[4] = append(4, n, " us");
+        }
+    }
+
+    private int append(int line, int pos, String text) {
+        char[] buffer = lines[line];
+        for (int i = 0; i < text.length() && pos < buffer.length; i++) {
+            buffer[pos++] = text.charAt(i);
+        }
+        return pos;
+    }
+
+    private int appendLong(int line, int pos, long value) {
+        char[] buffer = lines[line];
+        if (value < 0) {
+            if (pos < buffer.length) {
+                buffer[pos++] = '-';
+            }
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0 && pos < buffer.length; divisor /= 10) {
+            buffer[pos++] = (char) ('0' + (value / divisor) % 10);
+        }
+        return pos;
+    }
+
+    // 奈秒轉為微秒，保留一位小數
+    private int appendMicros(int line, int pos, long nanos) {
+        long tenths = (nanos + 50) / 100;
+        pos = appendLong(line, pos, tenths / 10);
+        pos = append(line, pos, ".");
+        return appendLong(line, pos, tenths % 10);
+    }
+
+    // 開始把每秒的統計附加到 CSV 檔 (第一次建立檔案時寫入標題列)
+    public void enableCsvExport() {
+        if (csvWriter != null) {
+            return;
+        }
+        csvWriter = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        boolean newFile = !new java.io.File(CSV_FILE).exists();
+        if (newFile) {
+            appendLine("timestamp_ms,ticks_per_sec,tick_p50_us,tick_p99_us,decision_p50_us,decision_p99_us,"
+                    + "move_p50_us,move_p99_us,collision_p50_us,collision_p99_us,food_p50_us,food_p99_us,"
+                    + "paint_p50_us,paint_p99_us,fps,snake_length,alloc_bytes_per_sec,jitter_avg_us,jitter_max_us");
+        }
+    }
+
+    // 遊戲刻端：各階段的百分位數直接讀取目前的直方圖 (重置前)，繪圖的統計使用最近一次結算的結果
+    private void writeCsvRow(TickStats ticks, PaintStats paints) {
+        String row = System.currentTimeMillis() + "," + ticks.ticksPerSecond
+                + "," + micros(ticks.p50) + "," + micros(ticks.p99)
+                + "," + micros(decision.percentile(50)) + "," + micros(decision.percentile(99))
+                + "," + micros(move.percentile(50)) + "," + micros(move.percentile(99))
+                + "," + micros(collision.percentile(50)) + "," + micros(collision.percentile(99))
+                + "," + micros(food.percentile(50)) + "," + micros(food.percentile(99))
+                + "," + micros(paints.p50) + "," + micros(paints.p99)
+                + "," + paints.fps + "," + ticks.snakeLength + "," + ticks.allocationRate
+                + "," + (ticks.averageJitter < 0 ? "" : micros(ticks.averageJitter))
+                + "," + (ticks.maxJitter < 0 ? "" : micros(ticks.maxJitter));
+        appendLine(row);
+    }
+
+    private static String micros(long nanos) {
+        return String.valueOf(nanos / 1000.0);
+    }
+
+    private void appendLine(String line) {
+        csvWriter.execute(() -> {
+            try (PrintWriter out = new PrintWriter(new FileWriter(CSV_FILE, true))) {
+                out.println(line);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // 目前執行緒 (推進遊戲的執行緒) 累計配置的位元組數 (JVM 不支援時回傳 -1)
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    // 遊戲刻端一秒的結算結果
+    private static final class TickStats {
+        static final TickStats EMPTY = new TickStats(0, 0, 0, 0, 0, -1, -1);
+
+        final long p50;
+        final long p99;
+        final int ticksPerSecond;
+        final int snakeLength;
+        // 每秒配置的位元組數 (無法量測時為 -1)
+        final long allocationRate;
+        // 抖動的平均與最大值 (沒有樣本時為 -1)
+        final long averageJitter;
+        final long maxJitter;
+
+        TickStats(long p50, long p99, int ticksPerSecond, int snakeLength, long allocationRate,
+                  long averageJitter, long maxJitter) {
+            this.p50 = p50;
+            this.p99 = p99;
+            this.ticksPerSecond = ticksPerSecond;
+            this.snakeLength = snakeLength;
+            this.allocationRate = allocationRate;
+            this.averageJitter = averageJitter;
+            this.maxJitter = maxJitter;
+        }
+    }
+
+    // 繪圖端一秒的結算結果
+    private static final class PaintStats {
+        static final PaintStats EMPTY = new PaintStats(0, 0, 0);
+
+        final long p50;
+        final long p99;
+        final int fps;
+
+        PaintStats(long p50, long p99, int fps) {
+            this.p50 = p50;
+            this.p99 = p99;
+            this.fps = fps;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// 以 Q-learning 訓練出的策略：把目前的局面編碼成一個小整數狀態，查表選出 Q 值最高的方向
+// 狀態與棋盤大小無關，因此在小棋盤上訓練的表格也能用在任何大小的棋盤
+// 表格由 QLearningTrainer 訓練並存成二進位檔 (預設 qpolicy.bin)
+public class QLearningStrategy implements AutopilotStrategy {
+
+    public static final Path DEFAULT_FILE = Path.of("qpolicy.bin");
+
+    // 狀態編碼：四個方向是否危險 (4 bits)、目前方向 (4 種)、食物的相對方向 (3x3)、斜對角四格是否被佔用 (4 bits)
+    public static final int STATE_COUNT = 16 * 4 * 9 * 16;
+    public static final int ACTION_COUNT = 4;
+
+    // 檔案格式 (big-endian)：magic "SNKQ" | 版本 (short) | 狀態數 (int) | 動作數 (int) | Q 值 (float)
+    static final int MAGIC = 0x534E4B51; // "SNKQ"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 4 + 4;
+
+    // 斜對角四格的位移
+    private static final int[] DIAGONAL_DX = {-1, 1, -1, 1};
+    private static final int[] DIAGONAL_DY = {-1, -1, 1, 1};
+
+    // 預設檔案的表格只讀取一次 (只讀，可在執行緒間共用)
+    private static volatile float[] defaultTable;
+
+    // Q 值表：q[state * ACTION_COUNT + action]，action 對應 SnakeEngine.DIRECTIONS
+    private final float[] q;
+
+    public QLearningStrategy(float[] q) {
+        this.q = q;
+    }
+
+    @Override
+    public char decide(SnakeEngine engine) {
+        return SnakeEngine.DIRECTIONS[bestAction(q, encode(engine))];
+    }
+
+    @Override
+    public String getName() {
+        return "Q-learning";
+    }
+
+    // 狀態只由蛇頭周圍 3x3 的格子、目前方向與食物的方向組成
+    @Override
+    public boolean isLocalWindowOnly() {
+        return true;
+    }
+
+    // 把目前的局面編碼成 0 ~ STATE_COUNT - 1 的狀態
+    static int encode(SnakeEngine engine) {
+        int headX = engine.getHeadX();
+        int headY = engine.getHeadY();
+        int danger = 0;
+        for (int d = 0; d < 4; d++) {
+            if (engine.isCollision(headX + SnakeEngine.DX[d], headY + SnakeEngine.DY[d])) {
+                danger |= 1 << d;
+            }
+        }
+        int direction = SnakeEngine.directionIndex(engine.getDirection());
+        int food = (Integer.signum(engine.getFoodY() - headY) + 1) * 3 + Integer.signum(engine.getFoodX() - headX) + 1;
+        int diagonal = 0;
+        for (int i = 0; i < 4; i++) {
+            if (engine.isCollision(headX + DIAGONAL_DX[i], headY + DIAGONAL_DY[i])) {
+                diagonal |= 1 << i;
+            }
+        }
+        return ((danger * 4 + direction) * 9 + food) * 16 + diagonal;
+    }
+
+    // 該狀態下 Q 值最高的動作 (相同時取索引較小的)
+    static int bestAction(float[] q, int state) {
+        int base = state * ACTION_COUNT;
+        int best = 0;
+        for (int a = 1; a < ACTION_COUNT; a++) {
+            if (q[base + a] > q[base + best]) {
+                best = a;
+            }
+        }
+        return best;
+    }
+
+    // 該狀態下最高的 Q 值
+    static float maxValue(float[] q, int state) {
+        return q[state * ACTION_COUNT + bestAction(q, state)];
+    }
+
+    // 讀取預設檔案的策略；檔案不存在時回傳 null
+    public static QLearningStrategy loadDefault() {
+        float[] table = defaultTable;
+        if (table == null) {
+            try {
+                table = read(DEFAULT_FILE);
+            } catch (IOException e) {
+                System.err.println("Can't load Q-learning policy " + DEFAULT_FILE + ": " + e.getMessage());
+                return null;
+            }
+            defaultTable = table;
+        }
+        return new QLearningStrategy(table);
+    }
+
+    public static float[] read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Truncated policy file: " + path);
+                }
+            }
+            buffer.flip();
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a policy file: " + path);
+            }
+            short version = buffer.getShort();
+            int states = buffer.getInt();
+            int actions = buffer.getInt();
+            if (version != VERSION || states != STATE_COUNT || actions != ACTION_COUNT) {
+                throw new IOException("Incompatible policy file: " + path);
+            }
+            if (buffer.remaining() != states * actions * 4) {
+                throw new IOException("Truncated policy file: " + path);
+            }
+            float[] q = new float[states * actions];
+            buffer.asFloatBuffer().get(q);
+            return q;
+        }
+    }
+
+    public static void write(Path path, float[] q) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + q.length * 4);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(STATE_COUNT);
+        buffer.putInt(ACTION_COUNT);
+        buffer.asFloatBuffer().put(q);
+        buffer.position(buffer.capacity());
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
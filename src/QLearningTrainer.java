@@ -0,0 +1,202 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Q-learning 訓練器 (無視窗)：多個工作執行緒各自以 epsilon-greedy 玩大量遊戲並更新自己的 Q 值表，
+// 每一回合結束時把所有工作者的表格平均成新的全域表格 (模型平均)，下一回合再從全域表格出發
+// 每一步只使用基本型別陣列，不配置任何物件
+// 每回合輸出吞吐量 (episodes/sec、steps/sec) 與學習曲線 (寫入 q_learning_curve.csv)，最後存成 qpolicy.bin
+// 用法: java QLearningTrainer [回合數] [每個工作者每回合的場數] [執行緒數] [棋盤寬] [棋盤高] [種子]
+public class QLearningTrainer {
+
+    public static final String CURVE_FILE = "q_learning_curve.csv";
+
+    // 學習率與折扣因子
+    static final float ALPHA = 0.1f;
+    static final float GAMMA = 0.95f;
+    // 獎勵：吃到食物、死亡 (含太久沒吃到食物)、靠近與遠離食物
+    static final float REWARD_FOOD = 10f;
+    static final float REWARD_DEATH = -10f;
+    static final float REWARD_CLOSER = 0.1f;
+    static final float REWARD_FARTHER = -0.2f;
+    // 探索率從 EPSILON_START 線性降到 EPSILON_END (在前 80% 的回合內)
+    static final double EPSILON_START = 0.5;
+    static final double EPSILON_END = 0.01;
+    // 每回合用來評估全域表格的遊戲數 (固定種子，不探索)
+    static final int EVAL_GAMES = 50;
+
+    public static void main(String[] args) throws IOException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int episodes = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int cols = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+        int rows = args.length > 4 ? Integer.parseInt(args[4]) : 24;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 42L;
+
+        float[] global = new float[QLearningStrategy.STATE_COUNT * QLearningStrategy.ACTION_COUNT];
+        Worker[] workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(cols, rows, ParallelEvaluator.gameSeed(seed, 0, 0, i), global.length);
+        }
+        SnakeEngine evalEngine = new SnakeEngine(cols, rows, 0L);
+
+        System.out.printf("%d rounds x %d episodes x %d workers on %dx%d, seed %d%n", rounds, episodes, threads, cols, rows, seed);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long totalEpisodes = 0;
+        long totalSteps = 0;
+        long trainingStart = System.nanoTime();
+        try (PrintWriter curve = new PrintWriter(Files.newBufferedWriter(Path.of(CURVE_FILE)))) {
+            curve.println("round,episodes,steps,epsilon,train_avg_score,eval_avg_score,eval_max_score,episodes_per_sec,steps_per_sec");
+            for (int round = 0; round < rounds; round++) {
+                double progress = Math.min(1.0, round / (rounds * 0.8));
+                double epsilon = EPSILON_START + (EPSILON_END - EPSILON_START) * progress;
+
+                long start = System.nanoTime();
+                pool.invoke(new WorkerRange(workers, global, episodes, epsilon, 0, threads));
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                // 模型平均：全域表格為所有工作者表格的平均
+                long roundSteps = 0;
+                long scoreSum = 0;
+                for (int i = 0; i < global.length; i++) {
+                    float sum = 0;
+                    for (Worker worker : workers) {
+                        sum += worker.q[i];
+                    }
+                    global[i] = sum / threads;
+                }
+                for (Worker worker : workers) {
+                    roundSteps += worker.steps;
+                    scoreSum += worker.scoreSum;
+                }
+                long roundEpisodes = (long) episodes * threads;
+                totalEpisodes += roundEpisodes;
+                totalSteps += roundSteps;
+
+                // 以固定種子評估全域表格 (不探索)
+                evalEngine.setStrategy(new QLearningStrategy(global));
+                long evalSum = 0;
+                int evalMax = 0;
+                for (int game = 0; game < EVAL_GAMES; game++) {
+                    evalEngine.reset(ParallelEvaluator.gameSeed(seed, 1, 0, game));
+                    BatchRunner.playGame(evalEngine);
+                    evalSum += evalEngine.getScore();
+                    evalMax = Math.max(evalMax, evalEngine.getScore());
+                }
+
+                double trainAverage = (double) scoreSum / roundEpisodes;
+                double evalAverage = (double) evalSum / EVAL_GAMES;
+                System.out.printf("round %3d: eps %.3f, %,.0f episodes/sec, %,.0f steps/sec, train avg %.2f, eval avg %.2f (max %d)%n",
+                        round, epsilon, roundEpisodes / seconds, roundSteps / seconds, trainAverage, evalAverage, evalMax);
+                curve.printf("%d,%d,%d,%.4f,%.3f,%.3f,%d,%.0f,%.0f%n", round, totalEpisodes, totalSteps, epsilon,
+                        trainAverage, evalAverage, evalMax, roundEpisodes / seconds, roundSteps / seconds);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - trainingStart) / 1e9;
+        System.out.printf("Trained %,d episodes (%,d steps) in %.1f s: %,.0f episodes/sec, %,.0f steps/sec%n",
+                totalEpisodes, totalSteps, seconds, totalEpisodes / seconds, totalSteps / seconds);
+
+        QLearningStrategy.write(QLearningStrategy.DEFAULT_FILE, global);
+        System.out.println("Policy written to " + QLearningStrategy.DEFAULT_FILE + ", learning curve to " + CURVE_FILE);
+    }
+
+    // 一個工作者：自己的引擎、亂數產生器與 Q 值表，跨回合重複使用
+    static class Worker {
+        final SnakeEngine engine;
+        final Random random;
+        final float[] q;
+        final long starveLimit;
+        // 本回合的統計
+        long steps;
+        long scoreSum;
+
+        Worker(int cols, int rows, long seed, int tableSize) {
+            this.engine = new SnakeEngine(cols, rows, seed);
+            this.random = new Random(seed);
+            this.q = new float[tableSize];
+            this.starveLimit = (long) cols * rows * 4;
+        }
+
+        // 從全域表格出發，玩指定場數並在過程中更新自己的表格
+        void train(float[] global, int episodes, double epsilon) {
+            System.arraycopy(global, 0, q, 0, q.length);
+            steps = 0;
+            scoreSum = 0;
+            for (int episode = 0; episode < episodes; episode++) {
+                engine.reset(random.nextLong());
+                int state = QLearningStrategy.encode(engine);
+                while (true) {
+                    int action = random.nextDouble() < epsilon
+                            ? random.nextInt(QLearningStrategy.ACTION_COUNT)
+                            : QLearningStrategy.bestAction(q, state);
+                    int distance = distanceToFood();
+                    int score = engine.getScore();
+                    boolean alive = engine.step(SnakeEngine.DIRECTIONS[action]);
+                    steps++;
+
+                    float reward;
+                    boolean terminal = !alive || engine.getTicksSinceFood() > starveLimit;
+                    if (!alive && !engine.isWon()) {
+                        reward = REWARD_DEATH;
+                    } else if (engine.getScore() > score) {
+                        reward = REWARD_FOOD;
+                    } else if (terminal) {
+                        reward = REWARD_DEATH;
+                    } else {
+                        reward = distanceToFood() < distance ? REWARD_CLOSER : REWARD_FARTHER;
+                    }
+
+                    int index = state * QLearningStrategy.ACTION_COUNT + action;
+                    if (terminal) {
+                        q[index] += ALPHA * (reward - q[index]);
+                        break;
+                    }
+                    int next = QLearningStrategy.encode(engine);
+                    q[index] += ALPHA * (reward + GAMMA * QLearningStrategy.maxValue(q, next) - q[index]);
+                    state = next;
+                }
+                scoreSum += engine.getScore();
+            }
+        }
+
+        private int distanceToFood() {
+            return Math.abs(engine.getFoodX() - engine.getHeadX()) + Math.abs(engine.getFoodY() - engine.getHeadY());
+        }
+    }
+
+    // 把工作者區間遞迴切半，每個工作者在自己的工作執行緒上訓練
+    private static class WorkerRange extends RecursiveAction {
+        private final Worker[] workers;
+        private final float[] global;
+        private final int episodes;
+        private final double epsilon;
+        private final int from;
+        private final int to;
+
+        WorkerRange(Worker[] workers, float[] global, int episodes, double epsilon, int from, int to) {
+            this.workers = workers;
+            this.global = global;
+            this.episodes = episodes;
+            this.epsilon = epsilon;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new WorkerRange(workers, global, episodes, epsilon, from, mid),
+                        new WorkerRange(workers, global, episodes, epsilon, mid, to));
+                return;
+            }
+            workers[from].train(global, episodes, epsilon);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+// 一幀畫面的快照：只有基本型別的陣列與數值，由模擬端在狀態改變後填入，繪圖端只從快照作畫，不讀取引擎
+// 快照物件會重複使用 (見 FrameExchange)，但發布之後到被模擬端取回之前不會再被修改
+public class RenderFrame {
+
+    // 遊戲狀態
+    static final int STATE_RUNNING = 0;
+    static final int STATE_GAME_OVER = 1;
+    static final int STATE_WON = 2;
+    // 競技場視窗中的食物 (其餘為蛇的編號，空格為 -1)
+    static final int ARENA_FOOD = -2;
+
+    // 狀態被整個替換時 (新遊戲、重播跳轉、外部直接修改) 加一，繪圖端以此判斷能否只更新有變動的格子
+    long generation = -1;
+    long ticks;
+    int cols;
+    int rows;
+    int state;
+    int score;
+    // 單一條蛇：蛇長、蛇頭與蛇尾的格子，以及食物的格子 (沒有食物時為 -1)
+    int length;
+    int headCell = -1;
+    int tailCell = -1;
+    int foodCell = -1;
+    // 蛇身的格子索引 (蛇頭在前)，共 cellCount 格：baseTicks 為 -1 時是完整的蛇身；
+    // 否則只有 baseTicks 之後每一刻新推入的蛇頭 (共 ticks - baseTicks 格)，其餘由繪圖端自己的蛇身補上
+    // 遊戲結束的快照不含蛇身 (繪圖端只畫結束畫面)
+    long baseTicks = -1;
+    int cellCount;
+    int[] cells = new int[64];
+
+    // 競技場：鏡頭範圍內每一格的內容 (列優先)，以及範圍內存活的蛇頭 (視窗內的索引)
+    boolean arena;
+    int cameraX;
+    int cameraY;
+    int viewCols;
+    int viewRows;
+    int[] window = new int[0];
+    int[] heads = new int[0];
+    int headCount;
+
+    // 複製單一條蛇的遊戲狀態 (完整的蛇身)
+    void copyFrom(SnakeEngine engine, long generation) {
+        copyFrom(engine, generation, -1);
+    }
+
+    // 複製單一條蛇的遊戲狀態；paintedTicks 是繪圖端的棋盤在這一代已經畫到的遊戲刻 (未知時為 -1)
+    // 蛇身只複製那之後新推入的蛇頭，所以每一刻只複製一格；繪圖端落後整條蛇以上時才複製完整的蛇身
+    void copyFrom(SnakeEngine engine, long generation, long paintedTicks) {
+        this.generation = generation;
+        arena = false;
+        ticks = engine.getTicks();
+        cols = engine.getCols();
+        rows = engine.getRows();
+        state = engine.isRunning() ? STATE_RUNNING : engine.isWon() ? STATE_WON : STATE_GAME_OVER;
+        score = engine.getScore();
+        length = engine.getLength();
+        headCell = length > 0 ? engine.getSegmentCell(0) : -1;
+        tailCell = length > 0 ? engine.getSegmentCell(length - 1) : -1;
+        if (state != STATE_RUNNING) {
+            baseTicks = -1;
+            cellCount = 0;
+        } else if (paintedTicks < 0 || paintedTicks > ticks || ticks - paintedTicks >= length) {
+            baseTicks = -1;
+            cellCount = length;
+        } else {
+            // 進行中的遊戲每一刻都恰好推入一個新的蛇頭
+            baseTicks = paintedTicks;
+            cellCount = (int) (ticks - paintedTicks);
+        }
+        if (cells.length < cellCount) {
+            cells = new int[Math.max(cellCount, cells.length * 2)];
+        }
+        for (int i = 0; i < cellCount; i++) {
+            cells[i] = engine.getSegmentCell(i);
+        }
+        foodCell = engine.getFoodX() < 0 ? -1 : engine.getFoodY() * cols + engine.getFoodX();
+    }
+
+    // 複製競技場在鏡頭範圍 (左上角 cameraX, cameraY) 內的格子，與棋盤大小無關
+    void copyFrom(ArenaEngine engine, long generation, int cameraX, int cameraY, int viewCols, int viewRows) {
+        this.generation = generation;
+        arena = true;
+        ticks = engine.getTicks();
+        cols = engine.getCols();
+        rows = engine.getRows();
+        state = STATE_RUNNING;
+        score = engine.getBestScore();
+        length = 0;
+        headCell = -1;
+        tailCell = -1;
+        foodCell = -1;
+        baseTicks = -1;
+        cellCount = 0;
+        this.cameraX = cameraX;
+        this.cameraY = cameraY;
+        this.viewCols = viewCols;
+        this.viewRows = viewRows;
+        if (window.length != viewCols * viewRows) {
+            window = new int[viewCols * viewRows];
+        }
+        for (int y = 0; y < viewRows; y++) {
+            int rowStart = (cameraY + y) * cols + cameraX;
+            for (int x = 0; x < viewCols; x++) {
+                int cell = rowStart + x;
+                window[y * viewCols + x] = engine.isFood(cell) ? ARENA_FOOD : engine.getOwner(cell);
+            }
+        }
+        if (heads.length < engine.getSnakeCount()) {
+            heads = new int[engine.getSnakeCount()];
+        }
+        headCount = 0;
+        for (int i = 0; i < engine.getSnakeCount(); i++) {
+            if (engine.isAlive(i)) {
+                int cell = engine.getHeadCell(i);
+                int x = cell % cols - cameraX;
+                int y = cell / cols - cameraY;
+                if (x >= 0 && x < viewCols && y >= 0 && y < viewRows) {
+                    heads[headCount++] = y * viewCols + x;
+                }
+            }
+        }
+    }
+
+    boolean isRunning() {
+        return state == STATE_RUNNING;
+    }
+
+    int getHeadCell() {
+        return headCell;
+    }
+
+    int getTailCell() {
+        return tailCell;
+    }
+}
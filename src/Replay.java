@@ -0,0 +1,100 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// 一場遊戲的重播資料：棋盤大小、種子，以及每一刻的方向 (2 bits，每個位元組存 4 刻)
+// 食物位置完全由種子決定，因此只要依序套用方向就能重現整場遊戲
+// 檔案格式 (big-endian)：magic "SNKR" | 版本 (short) | 寬 (short) | 高 (short) | 種子 (long) | 刻數 (int) | 方向資料
+public class Replay {
+
+    static final int MAGIC = 0x534E4B52; // "SNKR"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2 + 2 + 2 + 8 + 4;
+    // 刻數欄位在檔案中的位置 (錄製結束時回填)
+    static final int TICKS_OFFSET = HEADER_SIZE - 4;
+
+    final int cols;
+    final int rows;
+    final long seed;
+    final int ticks;
+    final byte[] directions;
+
+    Replay(int cols, int rows, long seed, int ticks, byte[] directions) {
+        this.cols = cols;
+        this.rows = rows;
+        this.seed = seed;
+        this.ticks = ticks;
+        this.directions = directions;
+    }
+
+    // 第 tick 刻的方向
+    public char direction(int tick) {
+        int bits = (directions[tick >> 2] >> ((tick & 3) << 1)) & 3;
+        return SnakeEngine.DIRECTIONS[bits];
+    }
+
+    public static Replay read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException("Truncated replay header: " + path);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a replay file: " + path);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported replay version " + version + ": " + path);
+            }
+            int cols = header.getShort();
+            int rows = header.getShort();
+            long seed = header.getLong();
+            int ticks = header.getInt();
+
+            ByteBuffer body = ByteBuffer.allocate((ticks + 3) / 4);
+            while (body.hasRemaining()) {
+                if (channel.read(body) < 0) {
+                    throw new IOException("Truncated replay data: " + path);
+                }
+            }
+            return new Replay(cols, rows, seed, ticks, body.array());
+        }
+    }
+
+    // 建立與錄製時相同的引擎並重置到第 0 刻
+    public SnakeEngine newEngine() {
+        SnakeEngine engine = new SnakeEngine(cols, rows, seed);
+        engine.reset(seed);
+        return engine;
+    }
+
+    // 從頭重新模擬到指定的刻數 (不開視窗，全速執行)
+    public void seek(SnakeEngine engine, int tick) {
+        engine.reset(seed);
+        int target = Math.min(tick, ticks);
+        for (int i = 0; i < target && engine.isRunning(); i++) {
+            engine.step(direction(i));
+        }
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,40 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+// 無介面重播播放器：以全速重新模擬一個重播檔，印出結果與模擬速度
+// 用法：java ReplayPlayer [檔案] [重複次數]
+// 要在視窗中播放請使用 java SnakeGame --replay <檔案>
+public class ReplayPlayer {
+
+    public static void main(String[] args) throws IOException {
+        Path path = args.length > 0 ? Path.of(args[0]) : ReplayRecorder.LAST_FILE;
+        int repeat = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        Replay replay = Replay.read(path);
+        System.out.println("Replay " + path + ": " + replay.getCols() + "x" + replay.getRows()
+                + ", seed " + replay.getSeed() + ", " + replay.getTicks() + " ticks");
+
+        SnakeEngine engine = replay.newEngine();
+        long start = System.nanoTime();
+        for (int i = 0; i < repeat; i++) {
+            replay.seek(engine, replay.getTicks());
+        }
+        long elapsed = System.nanoTime() - start;
+
+        String cause;
+        switch (engine.getDeathCause()) {
+            case SnakeEngine.CAUSE_WALL: cause = "wall"; break;
+            case SnakeEngine.CAUSE_SELF: cause = "self"; break;
+            case SnakeEngine.CAUSE_WIN: cause = "win"; break;
+            default: cause = "still running (recording was cut short)"; break;
+        }
+        System.out.println("Score: " + engine.getScore() + ", length: " + engine.getLength() + ", end: " + cause);
+        if (engine.getTicks() != replay.getTicks()) {
+            System.out.println("WARNING: game ended at tick " + engine.getTicks() + " but the recording has "
+                    + replay.getTicks() + " ticks");
+        }
+        double seconds = elapsed / 1e9;
+        System.out.printf("Re-simulated %d time(s) in %.1f ms (%.0f ticks/sec)%n",
+                repeat, elapsed / 1e6, (double) replay.getTicks() * repeat / seconds);
+    }
+}
@@ -0,0 +1,100 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// 重播錄製器：把每一刻的方向以 2 bits 打包，透過緩衝的 FileChannel 寫入檔案
+// 錄製中的遊戲寫在 replay_current.snkr，遊戲結束時回填刻數並改名為 replay_last.snkr
+// 同一個錄製器可重複用於每一場遊戲，緩衝區只配置一次
+public class ReplayRecorder {
+
+    public static final Path CURRENT_FILE = Path.of("replay_current.snkr");
+    public static final Path LAST_FILE = Path.of("replay_last.snkr");
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(8192);
+    // 回填刻數用的緩衝區
+    private final ByteBuffer count = ByteBuffer.allocate(4);
+    private FileChannel channel;
+    private int ticks;
+    // 尚未湊滿一個位元組的方向
+    private int pending;
+
+    // 開始錄製一場新遊戲
+    public void begin(int cols, int rows, long seed) {
+        finish(false);
+        try {
+            channel = FileChannel.open(CURRENT_FILE, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.clear();
+            buffer.putInt(Replay.MAGIC);
+            buffer.putShort(Replay.VERSION);
+            buffer.putShort((short) cols);
+            buffer.putShort((short) rows);
+            buffer.putLong(seed);
+            buffer.putInt(0); // 刻數，結束時回填
+            ticks = 0;
+            pending = 0;
+        } catch (IOException e) {
+            System.err.println("Can't record replay: " + e.getMessage());
+            channel = null;
+        }
+    }
+
+    public void record(char direction) {
+        if (channel == null) {
+            return;
+        }
+        pending |= SnakeEngine.directionIndex(direction) << ((ticks & 3) << 1);
+        ticks++;
+        if ((ticks & 3) == 0) {
+            buffer.put((byte) pending);
+            pending = 0;
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+        }
+    }
+
+    // 結束錄製；keep 為 true 時把檔案保留為 replay_last.snkr
+    public void finish(boolean keep) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if ((ticks & 3) != 0) {
+                buffer.put((byte) pending);
+            }
+            flush();
+            count.clear();
+            count.putInt(0, ticks);
+            channel.write(count, Replay.TICKS_OFFSET);
+            channel.close();
+            if (keep) {
+                Files.move(CURRENT_FILE, LAST_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            System.err.println("Can't save replay: " + e.getMessage());
+        } finally {
+            channel = null;
+        }
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            System.err.println("Can't write replay: " + e.getMessage());
+        }
+        buffer.clear();
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+}
@@ -0,0 +1,82 @@
+import javax.swing.SwingUtilities;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+// 重新開始的長時間測試 (無視窗)：在小棋盤上連續跑大量「遊戲結束 → 重新開始」的循環，
+// 確認每次死亡只會重新開始一次 (遊戲結束畫面被重繪多次也一樣)，且堆積記憶體不會隨循環次數成長
+// 用法: java -Djava.awt.headless=true RestartSoak [循環次數]
+public class RestartSoak {
+
+    // 熱身後才記錄基準的堆積用量，允許的成長上限
+    private static final long MAX_HEAP_GROWTH = 1 << 20;
+
+    public static void main(String[] args) throws Exception {
+        int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        // 8x6 的棋盤讓每場遊戲很快結束；計時器間隔設得很長，由這裡直接推進遊戲
+        GameSettings.publish(GameSettings.current().withScreenSize(200, 150).withGameSpeed(60_000));
+        boolean[] passed = new boolean[1];
+        // 在 EDT 上執行，與實際遊戲相同 (Timer 的事件也在 EDT 上，不會同時推進)
+        SwingUtilities.invokeAndWait(() -> passed[0] = run(cycles));
+        System.exit(passed[0] ? 0 : 1);
+    }
+
+    private static boolean run(int cycles) {
+        GamePanel panel = new GamePanel();
+        panel.setSize(200, 150);
+        panel.restartDelayNanos = 0;
+        Graphics g = new BufferedImage(200, 150, BufferedImage.TYPE_INT_RGB).getGraphics();
+
+        long startedBefore = panel.gamesStarted;
+        int warmup = Math.max(1, cycles / 10);
+        long baseline = 0;
+        int deaths = 0;
+        long start = System.nanoTime();
+        while (deaths < cycles) {
+            boolean wasRunning = panel.engine.isRunning();
+            panel.tick();
+            if (wasRunning && !panel.engine.isRunning()) {
+                deaths++;
+                // 遊戲結束畫面會被重繪很多次，不能因此排定多次重新開始
+                for (int i = 0; i < 3; i++) {
+                    panel.draw(g);
+                }
+                if (deaths == warmup) {
+                    baseline = usedHeap();
+                }
+                if (deaths % warmup == 0) {
+                    System.out.printf("%,d restarts, heap %,d KB%n", deaths, usedHeap() >> 10);
+                }
+            }
+        }
+        // 最後一次死亡後的重新開始
+        panel.tick();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long restarts = panel.gamesStarted - startedBefore;
+        long growth = usedHeap() - baseline;
+        g.dispose();
+
+        System.out.printf("%,d deaths, %,d restarts in %.1f s (%.0f cycles/sec), heap growth after warm-up %,d KB%n",
+                deaths, restarts, seconds, deaths / seconds, growth >> 10);
+        boolean passed = true;
+        if (restarts != deaths) {
+            System.out.println("FAIL: expected exactly one restart per death");
+            passed = false;
+        }
+        if (growth > MAX_HEAP_GROWTH) {
+            System.out.println("FAIL: heap grew by more than " + (MAX_HEAP_GROWTH >> 10) + " KB");
+            passed = false;
+        }
+        if (passed) {
+            System.out.println("OK");
+        }
+        return passed;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,336 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 分數紀錄：每一場結束的遊戲附加一筆固定長度的二進位紀錄到只能附加的檔案 (scores.snks)
+// 所有檔案讀寫都在專屬的背景執行緒上，遊戲迴圈 (EDT) 只把紀錄放進佇列，不會等待磁碟；
+// 背景執行緒一次取出佇列中所有的紀錄，合併成一次寫入並只發布一次摘要
+// 啟動時由同一個執行緒以大的緩衝區串流讀取整個檔案，重建前 N 名的索引與統計；讀取完成前結束的遊戲排在後面依序處理
+// 繪圖端只讀取最新發布的不可變摘要 (Summary)
+// 檔案格式 (big-endian)：magic "SNKS" | 版本 (short) | 紀錄 ...
+// 每筆紀錄：種子 (long) | 刻數 (long) | 分數 (int) | 寬 (short) | 高 (short) | 策略 (byte) | 死因 (byte)
+public class ScoreLog {
+
+    public static final Path DEFAULT_FILE = Path.of("scores.snks");
+    static final int MAGIC = 0x534E4B53; // "SNKS"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 4 + 2;
+    static final int RECORD_SIZE = 8 + 8 + 4 + 2 + 2 + 1 + 1;
+    // 排行榜的名次數，以及最近平均分數的場數
+    public static final int TOP_N = 10;
+    public static final int RECENT_GAMES = 100;
+    // 死因的名稱 (索引對應 SnakeEngine.CAUSE_*)
+    static final String[] CAUSE_NAMES = {"-", "wall", "self", "win"};
+    // 啟動時串流讀取的緩衝區大小 (約 1 MB)，以及合併寫入的緩衝區大小
+    private static final int READ_BUFFER_SIZE = RECORD_SIZE * 40_000;
+    private static final int WRITE_BUFFER_SIZE = RECORD_SIZE * 1024;
+
+    // 遊戲視窗共用的紀錄 (重新建立遊戲視窗時沿用，檔案只讀取一次)
+    private static ScoreLog shared;
+
+    private final Path file;
+    private final ExecutorService writer;
+    // 等待寫入的紀錄，以及是否已經排定一次寫入 (連續結束的遊戲只排定一次)
+    private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    // 以下都只由背景執行緒使用
+    private FileChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    // 前 N 名 (依分數由高到低，同分時刻數少的在前，再相同時先記錄的在前)
+    private final Entry[] top = new Entry[TOP_N];
+    private int topCount;
+    // 全部場數的統計，以及最近 RECENT_GAMES 場分數的環狀緩衝區
+    private long games;
+    private long wins;
+    private long totalScore;
+    private long totalTicks;
+    private final int[] recent = new int[RECENT_GAMES];
+    private long recentSum;
+
+    // 最新的摘要 (繪圖端讀取)，以及摘要改變時要通知的對象 (目前的遊戲畫面)
+    private volatile Summary summary = Summary.LOADING;
+    private volatile Runnable changeListener;
+
+    public ScoreLog(Path file) {
+        this.file = file;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "score-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.execute(this::open);
+    }
+
+    public static synchronized ScoreLog shared() {
+        if (shared == null) {
+            shared = new ScoreLog(DEFAULT_FILE);
+        }
+        return shared;
+    }
+
+    public Summary getSummary() {
+        return summary;
+    }
+
+    public void setChangeListener(Runnable listener) {
+        this.changeListener = listener;
+    }
+
+    // 記錄一場結束的遊戲 (任何執行緒都可以呼叫，只把紀錄放進佇列，不等待寫入)
+    public void record(long seed, int strategy, int cols, int rows, int score, long ticks, int cause) {
+        pending.add(new Entry(seed, ticks, score, cols, rows, strategy, cause));
+        if (drainScheduled.compareAndSet(false, true)) {
+            writer.execute(this::drain);
+        }
+    }
+
+    // 等待目前排入的讀取與寫入都完成 (檢查工具使用)
+    void awaitIdle() throws InterruptedException {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // 寫完排入的紀錄後關閉檔案 (檢查工具使用；遊戲中的紀錄在程式結束前都保持開啟)
+    void close() throws InterruptedException {
+        writer.execute(this::closeChannel);
+        writer.shutdown();
+        writer.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    // 背景執行緒：開啟紀錄檔 (不存在時建立)，串流讀取既有的紀錄並發布第一份摘要
+    private void open() {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                // 新的檔案 (或連檔頭都沒寫完的檔案)
+                channel.truncate(0);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC);
+                header.putShort(VERSION);
+                header.flip();
+                writeFully(header);
+            } else {
+                load(size);
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            System.err.println("Can't open score log: " + e.getMessage());
+            closeChannel();
+        }
+        publish();
+    }
+
+    // 背景執行緒：讀取檔頭與所有完整的紀錄；最後一筆寫到一半時 (例如程式在寫入中被中止) 截掉它
+    private void load(long size) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a score log: " + file);
+        }
+        short version = header.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported score log version " + version + ": " + file);
+        }
+
+        long records = (size - HEADER_SIZE) / RECORD_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        long position = HEADER_SIZE;
+        for (long remaining = records; remaining > 0; ) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), remaining * RECORD_SIZE));
+            readFully(buffer, position);
+            position += buffer.position();
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                index(buffer.getLong(), buffer.getLong(), buffer.getInt(), buffer.getShort(), buffer.getShort(),
+                        buffer.get(), buffer.get());
+                remaining--;
+            }
+        }
+        long end = HEADER_SIZE + records * RECORD_SIZE;
+        if (end != size) {
+            channel.truncate(end);
+            System.err.println("Dropped an incomplete score record at the end of " + file);
+        }
+    }
+
+    // 背景執行緒：取出佇列中所有的紀錄，寫入檔案並更新索引，最後發布一次摘要
+    // (先清除排定的標記再取出，取出之後才加入的紀錄會排定下一次寫入)
+    private void drain() {
+        drainScheduled.set(false);
+        writeBuffer.clear();
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            if (!writeBuffer.hasRemaining()) {
+                flush();
+            }
+            writeBuffer.putLong(entry.seed);
+            writeBuffer.putLong(entry.ticks);
+            writeBuffer.putInt(entry.score);
+            writeBuffer.putShort((short) entry.cols);
+            writeBuffer.putShort((short) entry.rows);
+            writeBuffer.put((byte) entry.strategy);
+            writeBuffer.put((byte) entry.cause);
+            index(entry.seed, entry.ticks, entry.score, entry.cols, entry.rows, entry.strategy, entry.cause);
+        }
+        flush();
+        publish();
+    }
+
+    private void flush() {
+        writeBuffer.flip();
+        if (channel != null) {
+            try {
+                writeFully(writeBuffer);
+            } catch (IOException e) {
+                System.err.println("Can't write score log: " + e.getMessage());
+            }
+        }
+        writeBuffer.clear();
+    }
+
+    // 背景執行緒：把一筆紀錄加入統計，分數進得了前 N 名時才建立 Entry
+    private void index(long seed, long ticks, int score, int cols, int rows, int strategy, int cause) {
+        recentSum += score - recent[(int) (games % RECENT_GAMES)];
+        recent[(int) (games % RECENT_GAMES)] = score;
+        games++;
+        totalScore += score;
+        totalTicks += ticks;
+        if (cause == SnakeEngine.CAUSE_WIN) {
+            wins++;
+        }
+        if (topCount == TOP_N && !isBetter(score, ticks, top[TOP_N - 1])) {
+            return;
+        }
+        int i = topCount < TOP_N ? topCount++ : TOP_N - 1;
+        while (i > 0 && isBetter(score, ticks, top[i - 1])) {
+            top[i] = top[i - 1];
+            i--;
+        }
+        top[i] = new Entry(seed, ticks, score, cols, rows, strategy, cause);
+    }
+
+    // 分數較高，或同分但用的刻數較少 (完全相同時先記錄的排在前面)
+    private static boolean isBetter(int score, long ticks, Entry other) {
+        return score > other.score || (score == other.score && ticks < other.ticks);
+    }
+
+    private void publish() {
+        Entry[] entries = new Entry[topCount];
+        System.arraycopy(top, 0, entries, 0, topCount);
+        int recentGames = (int) Math.min(games, RECENT_GAMES);
+        summary = new Summary(true, games, wins,
+                games == 0 ? 0 : (double) totalScore / games,
+                games == 0 ? 0 : (double) totalTicks / games,
+                recentGames == 0 ? 0 : (double) recentSum / recentGames,
+                entries);
+        Runnable listener = changeListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated score log: " + file);
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Can't close score log: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    // 一場結束的遊戲 (不可變)
+    public static final class Entry {
+        public final long seed;
+        public final long ticks;
+        public final int score;
+        public final int cols;
+        public final int rows;
+        // 策略在 AutopilotStrategies.NAMES 中的索引，以及死因 (SnakeEngine.CAUSE_*)
+        public final int strategy;
+        public final int cause;
+
+        Entry(long seed, long ticks, int score, int cols, int rows, int strategy, int cause) {
+            this.seed = seed;
+            this.ticks = ticks;
+            this.score = score;
+            this.cols = cols;
+            this.rows = rows;
+            this.strategy = strategy;
+            this.cause = cause;
+        }
+
+        public String strategyName() {
+            return strategy >= 0 && strategy < AutopilotStrategies.NAMES.length ? AutopilotStrategies.NAMES[strategy] : "?";
+        }
+
+        public String causeName() {
+            return cause >= 0 && cause < CAUSE_NAMES.length ? CAUSE_NAMES[cause] : "?";
+        }
+    }
+
+    // 排行榜與統計的不可變摘要：每次紀錄改變時整份重新發布
+    public static final class Summary {
+        // 檔案讀取完成前的摘要
+        static final Summary LOADING = new Summary(false, 0, 0, 0, 0, 0, new Entry[0]);
+
+        public final boolean loaded;
+        public final long games;
+        public final long wins;
+        public final double averageScore;
+        public final double averageTicks;
+        // 最近 RECENT_GAMES 場的平均分數
+        public final double recentAverage;
+        // 前 N 名 (由高到低)
+        private final Entry[] top;
+
+        Summary(boolean loaded, long games, long wins, double averageScore, double averageTicks, double recentAverage,
+                Entry[] top) {
+            this.loaded = loaded;
+            this.games = games;
+            this.wins = wins;
+            this.averageScore = averageScore;
+            this.averageTicks = averageTicks;
+            this.recentAverage = recentAverage;
+            this.top = top;
+        }
+
+        public int getTopCount() {
+            return top.length;
+        }
+
+        public Entry getTop(int rank) {
+            return top[rank];
+        }
+    }
+}
@@ -0,0 +1,128 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+// 分數紀錄的檢查：在暫存檔中記錄大量隨機的遊戲，重新開啟後比對重建的排行榜與統計
+// 1. record() 只把紀錄交給背景執行緒，呼叫端 (EDT) 不等待磁碟
+// 2. 重新開啟時串流讀取整個檔案，前 N 名與統計必須與直接計算的結果相同
+// 3. 檔案最後一筆寫到一半 (程式在寫入中被中止) 時截掉它，其餘紀錄不受影響
+// 用法: java ScoreLogCheck [紀錄筆數]
+public class ScoreLogCheck {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Path file = Files.createTempFile("scores", ".snks");
+        Files.delete(file);
+        try {
+            System.out.println(run(file, count) ? "OK" : "FAILED");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static boolean run(Path file, int count) throws Exception {
+        // 隨機的遊戲：大多數分數不高，偶爾出現高分與勝利 (同分的紀錄也很多)
+        Random random = new Random(1);
+        int[] scores = new int[count];
+        long[] ticks = new long[count];
+        int[] causes = new int[count];
+        ScoreLog log = new ScoreLog(file);
+        long maxCall = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            scores[i] = random.nextInt(100) == 0 ? random.nextInt(3265) : random.nextInt(300);
+            ticks[i] = scores[i] * 40L + random.nextInt(1000);
+            causes[i] = scores[i] == 3264 ? SnakeEngine.CAUSE_WIN : 1 + random.nextInt(2);
+            long before = System.nanoTime();
+            log.record(random.nextLong(), random.nextInt(AutopilotStrategies.NAMES.length), 76, 43, scores[i], ticks[i], causes[i]);
+            maxCall = Math.max(maxCall, System.nanoTime() - before);
+        }
+        double queued = (System.nanoTime() - start) / 1e9;
+        log.close();
+        double written = (System.nanoTime() - start) / 1e9;
+        long size = Files.size(file);
+        System.out.printf("append: %,d records (%,d bytes) queued in %.2f s and written in %.2f s, longest record() call %.3f ms%n",
+                count, size, queued, written, maxCall / 1e6);
+        boolean passed = true;
+        if (size != ScoreLog.HEADER_SIZE + (long) count * ScoreLog.RECORD_SIZE) {
+            System.out.println("FAIL: unexpected log size");
+            passed = false;
+        }
+
+        // 重新開啟：與遊戲啟動時相同，由背景執行緒串流讀取
+        passed &= reload(file, scores, ticks, causes, "reload");
+
+        // 模擬寫到一半的紀錄：附加半筆紀錄後重新開啟，應該截掉它並得到相同的結果
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[ScoreLog.RECORD_SIZE / 2]));
+        }
+        passed &= reload(file, scores, ticks, causes, "torn tail");
+        if (Files.size(file) != size) {
+            System.out.println("FAIL: incomplete record was not truncated");
+            passed = false;
+        }
+        return passed;
+    }
+
+    private static boolean reload(Path file, int[] scores, long[] ticks, int[] causes, String label)
+            throws InterruptedException, IOException {
+        long start = System.nanoTime();
+        ScoreLog log = new ScoreLog(file);
+        log.awaitIdle();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        ScoreLog.Summary summary = log.getSummary();
+        log.close();
+        System.out.printf("%s: %,d games loaded in %.3f s (%,.0f records/s), best %d, avg %.2f%n", label, summary.games,
+                seconds, summary.games / seconds, summary.getTopCount() > 0 ? summary.getTop(0).score : 0, summary.averageScore);
+        String error = compare(summary, scores, ticks, causes);
+        if (error != null) {
+            System.out.println("FAIL: " + label + ": " + error);
+            return false;
+        }
+        return true;
+    }
+
+    // 以最直接的方式計算統計與前 N 名 (每個名次掃描一次所有紀錄)，與摘要比較
+    private static String compare(ScoreLog.Summary summary, int[] scores, long[] ticks, int[] causes) {
+        int count = scores.length;
+        long totalScore = 0;
+        long wins = 0;
+        for (int i = 0; i < count; i++) {
+            totalScore += scores[i];
+            if (causes[i] == SnakeEngine.CAUSE_WIN) {
+                wins++;
+            }
+        }
+        long recentSum = 0;
+        int recent = Math.min(count, ScoreLog.RECENT_GAMES);
+        for (int i = count - recent; i < count; i++) {
+            recentSum += scores[i];
+        }
+        if (!summary.loaded || summary.games != count || summary.wins != wins) {
+            return "game or win count differs";
+        }
+        if (Math.abs(summary.averageScore - (double) totalScore / count) > 1e-9
+                || Math.abs(summary.recentAverage - (double) recentSum / recent) > 1e-9) {
+            return "averages differ";
+        }
+        boolean[] taken = new boolean[count];
+        for (int rank = 0; rank < Math.min(count, ScoreLog.TOP_N); rank++) {
+            int best = -1;
+            for (int i = 0; i < count; i++) {
+                if (!taken[i] && (best < 0 || scores[i] > scores[best] || (scores[i] == scores[best] && ticks[i] < ticks[best]))) {
+                    best = i;
+                }
+            }
+            taken[best] = true;
+            ScoreLog.Entry entry = summary.getTop(rank);
+            if (entry.score != scores[best] || entry.ticks != ticks[best] || entry.cause != causes[best]) {
+                return "rank " + (rank + 1) + " differs";
+            }
+        }
+        return null;
+    }
+}
@@ -19,6 +19,8 @@ public class SettingsFrame extends JFrame {
 
     public SettingsFrame(GamePanel gamePanel) {
         this.gamePanel = gamePanel; // 接收 GamePanel 實例
+        // 以目前的設定快照作為各選項的初始值
+        GameSettings.Snapshot current = GameSettings.current();
 
         this.setTitle("Setting");
         this.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -36,7 +38,7 @@ public class SettingsFrame extends JFrame {
             }
         });
 
-        JPanel panel = new JPanel(new GridLayout(2, 2, 10, 10));
+        JPanel panel = new JPanel(new GridLayout(7, 2, 10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
         // 速度設定
@@ -46,24 +48,34 @@ public class SettingsFrame extends JFrame {
             speedOptions[i] = GameSettings.GAME_SPEEDS[i] + " ms";
         }
         JComboBox<String> speedComboBox = new JComboBox<>(speedOptions);
-        speedComboBox.setSelectedIndex(GameSettings.speedIndex);
+        speedComboBox.setSelectedIndex(current.speedIndex);
         panel.add(speedLabel);
         panel.add(speedComboBox);
 
+        // 加速倍率設定 (每個遊戲刻間隔推進的刻數，Max 為全速)
+        JLabel warpLabel = new JLabel("Warp:");
+        String[] warpOptions = new String[GameSettings.WARP_FACTORS.length];
+        for (int i = 0; i < GameSettings.WARP_FACTORS.length; i++) {
+            warpOptions[i] = GameSettings.WARP_FACTORS[i] == 0 ? "Max" : GameSettings.WARP_FACTORS[i] + "x";
+        }
+        JComboBox<String> warpComboBox = new JComboBox<>(warpOptions);
+        warpComboBox.setSelectedIndex(current.warpIndex);
+        panel.add(warpLabel);
+        panel.add(warpComboBox);
+
         // --- 畫面模式設定 ---
         JLabel modeLabel = new JLabel("畫面模式:");
         JComboBox<String> modeComboBox = new JComboBox<>(displayModes);
         // 根據目前的設定來選擇正確的模式
-        int currentSizeIndex = GameSettings.sizeIndex;
-        if (GameSettings.screenWidth == 1920 && GameSettings.screenHeight == 1080) {
+        if (current.screenWidth == 1920 && current.screenHeight == 1080) {
             // 處理全螢幕情況
             modeComboBox.setSelectedIndex(4);
         } else {
             // 處理視窗情況
             // 遍歷所有視窗選項以找到對應的索引
             for(int i = 0; i < 4; i++) {
-                if (GameSettings.screenWidth == GameSettings.SCREEN_SIZES[i][0] &&
-                        GameSettings.screenHeight == GameSettings.SCREEN_SIZES[i][1]) {
+                if (current.screenWidth == GameSettings.SCREEN_SIZES[i][0] &&
+                        current.screenHeight == GameSettings.SCREEN_SIZES[i][1]) {
                     modeComboBox.setSelectedIndex(i);
                     break;
                 }
@@ -72,6 +84,39 @@ public class SettingsFrame extends JFrame {
         panel.add(modeLabel);
         panel.add(modeComboBox);
 
+        // 自動駕駛策略設定
+        JLabel autopilotLabel = new JLabel("Autopilot:");
+        JComboBox<String> autopilotComboBox = new JComboBox<>(AutopilotStrategies.NAMES);
+        autopilotComboBox.setSelectedIndex(current.autopilotIndex);
+        panel.add(autopilotLabel);
+        panel.add(autopilotComboBox);
+
+        // 畫面更新模式設定
+        JLabel renderModeLabel = new JLabel("Render mode:");
+        JComboBox<String> renderModeComboBox = new JComboBox<>(GameSettings.RENDER_MODES);
+        renderModeComboBox.setSelectedIndex(current.renderModeIndex);
+        panel.add(renderModeLabel);
+        panel.add(renderModeComboBox);
+
+        // 遊戲模式設定
+        JLabel gameModeLabel = new JLabel("Game mode:");
+        JComboBox<String> gameModeComboBox = new JComboBox<>(GameSettings.GAME_MODES);
+        gameModeComboBox.setSelectedIndex(current.gameModeIndex);
+        panel.add(gameModeLabel);
+        panel.add(gameModeComboBox);
+
+        // 棋盤大小設定 (第一個選項依畫面大小決定)
+        JLabel boardSizeLabel = new JLabel("Board size:");
+        String[] boardSizeOptions = new String[GameSettings.BOARD_SIZES.length];
+        boardSizeOptions[0] = "Fit screen";
+        for (int i = 1; i < GameSettings.BOARD_SIZES.length; i++) {
+            boardSizeOptions[i] = GameSettings.BOARD_SIZES[i][0] + "x" + GameSettings.BOARD_SIZES[i][1];
+        }
+        JComboBox<String> boardSizeComboBox = new JComboBox<>(boardSizeOptions);
+        boardSizeComboBox.setSelectedIndex(current.boardSizeIndex);
+        panel.add(boardSizeLabel);
+        panel.add(boardSizeComboBox);
+
         JPanel buttonPanel = new JPanel(new FlowLayout());
 
         // 確認按鈕
@@ -80,20 +125,26 @@ public class SettingsFrame extends JFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 try {
-                    // 更新 GameSettings 的值
-                    GameSettings.speedIndex = speedComboBox.getSelectedIndex();
-                    GameSettings.sizeIndex = modeComboBox.getSelectedIndex();
-
-                    // 更新參數並儲存
-                    GameSettings.updateGameParameters();
-                    GameSettings.saveSettings();
+                    // 建立新的設定快照
+                    GameSettings.Snapshot settings = new GameSettings.Snapshot(
+                            speedComboBox.getSelectedIndex(),
+                            modeComboBox.getSelectedIndex(),
+                            autopilotComboBox.getSelectedIndex(),
+                            renderModeComboBox.getSelectedIndex(),
+                            current.metricsExport,
+                            gameModeComboBox.getSelectedIndex(),
+                            boardSizeComboBox.getSelectedIndex(),
+                            warpComboBox.getSelectedIndex());
+
+                    // 立即套用，設定檔由背景執行緒寫入 (不在 UI 執行緒上等待磁碟)
+                    GameSettings.saveSettings(settings);
                     // 呼叫 GamePanel 的方法來重新啟動遊戲
                     gamePanel.applyAndRestart();
                     // 關閉當前視窗
                     dispose();
 
                     // 重新啟動遊戲
-                    restartGame();
+                    SnakeGame.restartGame();
 
                 } catch (NumberFormatException ex) {
                     JOptionPane.showMessageDialog(null, "Invalid Type Param！", "ERROR", JOptionPane.ERROR_MESSAGE);
@@ -116,13 +167,4 @@ public class SettingsFrame extends JFrame {
         this.pack();
         this.setVisible(true);
     }
-
-    private void restartGame() {
-        // 關閉所有現有視窗
-        for (Window window : Window.getWindows()) {
-            window.dispose();
-        }
-        // 重新啟動遊戲
-        new SnakeGame();
-    }
-}
\ No newline at end of file
+}
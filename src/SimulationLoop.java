@@ -0,0 +1,89 @@
+import java.util.concurrent.locks.LockSupport;
+
+// 加速模式的模擬執行緒 (Timer 繪圖模式下加速倍率不是 1x 時使用)：遊戲刻不再綁在 Swing Timer 的事件上，
+// 每個遊戲刻間隔平均推進 warp 刻，全速 (warp 為 0) 時不停地推進
+// 每一刻的結果透過 GamePanel 的畫面快照交給 EDT，畫面只以螢幕的更新率重繪，
+// EDT 只負責繪圖與鍵盤，O 與 ESC 鍵不會被模擬拖慢
+public class SimulationLoop implements Runnable {
+
+    // 每批最多推進的刻數 (每批之間檢查是否要停止或改變倍率)
+    private static final int MAX_BATCH = 256;
+    // 落後超過這麼久時放棄追趕，避免越落越多
+    private static final long MAX_LAG_NANOS = 100_000_000L;
+    // 遊戲沒有在進行時 (暫停或等待重新開始) 每次休息的時間
+    private static final long IDLE_NANOS = 1_000_000L;
+
+    private final GamePanel panel;
+    private volatile long tickNanos;
+    private volatile int warp;
+    private volatile boolean running = true;
+    private Thread thread;
+    // 已推進的遊戲刻數
+    private volatile long ticks;
+
+    public SimulationLoop(GamePanel panel, int tickMillis, int warp) {
+        this.panel = panel;
+        this.tickNanos = tickMillis * 1_000_000L;
+        this.warp = warp;
+    }
+
+    public void start() {
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // 停止並等待執行緒結束，之後遊戲狀態交回呼叫的執行緒
+    public void stop() {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void setTickMillis(int tickMillis) {
+        this.tickNanos = tickMillis * 1_000_000L;
+    }
+
+    public void setWarp(int warp) {
+        this.warp = warp;
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (running) {
+            int warp = this.warp;
+            long interval = warp == 0 ? 0 : tickNanos / warp;
+            long now = System.nanoTime();
+            // 推進所有已經到期的遊戲刻 (全速時直接推進一批)
+            boolean idle = false;
+            for (int steps = 0; running && steps < MAX_BATCH && (interval == 0 || now - next >= 0); steps++) {
+                if (!panel.tick()) {
+                    idle = true;
+                    break;
+                }
+                ticks++;
+                next += interval;
+            }
+            if (idle) {
+                LockSupport.parkNanos(IDLE_NANOS);
+                next = System.nanoTime();
+                continue;
+            }
+            now = System.nanoTime();
+            if (now - next > MAX_LAG_NANOS) {
+                next = now;
+            }
+            if (interval != 0 && next - now > 0) {
+                LockSupport.parkNanos(next - now);
+            }
+        }
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+}
@@ -0,0 +1,510 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// 無介面 (headless) 的遊戲引擎：所有遊戲狀態與規則都在這裡，不依賴 AWT/Swing
+// 座標一律使用「格子」單位，繪圖時再乘上 UNIT_SIZE
+public class SnakeEngine {
+
+    // 死亡原因
+    public static final int CAUSE_NONE = 0;
+    public static final int CAUSE_WALL = 1; // 撞牆
+    public static final int CAUSE_SELF = 2; // 撞到自己
+    public static final int CAUSE_WIN = 3;  // 蛇佔滿整個棋盤 (勝利)
+
+    // 初始蛇的長度
+    public static final int INITIAL_LENGTH = 3;
+
+    // 四個方向與對應的位移，索引順序一致
+    public static final char[] DIRECTIONS = {'U', 'D', 'L', 'R'};
+    public static final int[] DX = {0, 0, -1, 1};
+    public static final int[] DY = {-1, 1, 0, 0};
+
+    // 棋盤大小 (格數)
+    final int COLS;
+    final int ROWS;
+    final int GAME_UNITS;
+
+    // 蛇的身體：以環狀緩衝區儲存格子索引 (y * COLS + x)
+    // ring[head] 為蛇頭，往回數 length - 1 格為蛇尾，移動時只需移動頭尾指標
+    final int[] ring;
+    int head;
+    int tail;
+    int length;
+    // 吃到食物後尚未長出的節數 (下一次移動時不釋放蛇尾)
+    int pendingGrowth;
+    // 每一格被蛇身佔用的節數 (蛇頭與蛇尾移動時逐步更新，正常情況下只會是 0 或 1)
+    final byte[] occupied;
+    // 空格索引：freeCells[0..freeCount) 為所有空格，freePos[cell] 為該格在陣列中的位置 (-1 表示被佔用)
+    // 以「與最後一個交換後移除」維持，讓放置食物只需一次 O(1) 隨機抽取
+    final int[] freeCells;
+    final int[] freePos;
+    int freeCount;
+    // 蛇頭座標 (撞牆時可能在棋盤外，因此另外記錄)
+    int headX;
+    int headY;
+    // 食物的座標
+    int foodX;
+    int foodY;
+    // 隨機數生成器
+    Random random;
+    // 自動駕駛策略
+    AutopilotStrategy strategy = new GreedyStrategy();
+    // 效能統計 (為 null 時不計時，批次模擬不受影響)
+    PerfMetrics metrics;
+    // 重播錄製 (為 null 時不錄製)
+    ReplayRecorder recorder;
+    // 遊戲狀態
+    boolean running = false;
+    int deathCause = CAUSE_NONE;
+    // 蛇的移動方向
+    char direction = 'R';
+    // 統計
+    long ticks;
+    long ticksSinceFood;
+    int foodEaten;
+    // 重置時使用的初始蛇身 (重複使用，重新開始不配置新的陣列)
+    private final int[] startCells = new int[INITIAL_LENGTH];
+
+    public SnakeEngine(int cols, int rows, Random random) {
+        this.COLS = cols;
+        this.ROWS = rows;
+        this.GAME_UNITS = cols * rows;
+        this.ring = new int[GAME_UNITS + 1];
+        this.occupied = new byte[GAME_UNITS];
+        this.freeCells = new int[GAME_UNITS];
+        this.freePos = new int[GAME_UNITS];
+        this.random = random;
+        reset();
+    }
+
+    public SnakeEngine(int cols, int rows, long seed) {
+        this(cols, rows, new Random(seed));
+    }
+
+    // 重置遊戲狀態
+    public void reset() {
+        // 蛇的初始位置在棋盤中心，向左延伸 (蛇頭在前)
+        int startX = COLS / 2;
+        int startY = ROWS / 2;
+        for (int i = 0; i < INITIAL_LENGTH; i++) {
+            startCells[i] = startY * COLS + (startX - i);
+        }
+        loadBody(startCells, INITIAL_LENGTH);
+        direction = 'R';
+
+        // 生成第一顆食物
+        newFood();
+    }
+
+    // 以指定的種子重新開始一場遊戲 (相同種子與策略會得到相同的遊戲)
+    public void reset(long seed) {
+        random.setSeed(seed);
+        reset();
+    }
+
+    // 從指定的格子序列建立蛇身 (cells[0] 為蛇頭)，並重置遊戲狀態
+    public void loadBody(int[] cells, int count) {
+        Arrays.fill(occupied, (byte) 0);
+        for (int cell = 0; cell < GAME_UNITS; cell++) {
+            freeCells[cell] = cell;
+            freePos[cell] = cell;
+        }
+        freeCount = GAME_UNITS;
+        length = 0;
+        pendingGrowth = 0;
+        // 由蛇尾往蛇頭寫入，讓 ring[head] 為蛇頭
+        tail = 0;
+        head = -1;
+        for (int i = count - 1; i >= 0; i--) {
+            head++;
+            ring[head] = cells[i];
+            occupy(cells[i]);
+            length++;
+        }
+        headX = cells[0] % COLS;
+        headY = cells[0] / COLS;
+
+        deathCause = CAUSE_NONE;
+        ticks = 0;
+        ticksSinceFood = 0;
+        foodEaten = 0;
+        running = true;
+    }
+
+    // 載入外部傳來的局面 (錦標賽客戶端以此在本地重建棋盤，再交給自動駕駛策略決策)
+    public void loadState(int[] cells, int count, int foodX, int foodY, char direction, int pendingGrowth) {
+        loadBody(cells, count);
+        this.foodX = foodX;
+        this.foodY = foodY;
+        this.direction = direction;
+        this.pendingGrowth = pendingGrowth;
+    }
+
+    // 執行一個遊戲刻 (tick)，回傳遊戲是否仍在進行
+    public boolean step() {
+        if (!running) {
+            return false;
+        }
+        if (metrics != null) {
+            return stepMeasured();
+        }
+        // 自動判斷食物方向並轉向
+        makeDecision();
+        if (recorder != null) {
+            recorder.record(direction);
+        }
+        return advance();
+    }
+
+    // 以指定的方向推進一刻，不經過自動駕駛決策 (重播用)
+    public boolean step(char direction) {
+        if (!running) {
+            return false;
+        }
+        this.direction = direction;
+        if (recorder != null) {
+            recorder.record(direction);
+        }
+        return advance();
+    }
+
+    // 移動、碰撞偵測、吃食物
+    private boolean advance() {
+        move();
+        checkCollisions();
+        if (running) {
+            checkFood();
+        }
+        ticks++;
+        return running;
+    }
+
+    // 與 step() 相同，但記錄每個階段花費的時間
+    private boolean stepMeasured() {
+        long start = System.nanoTime();
+        makeDecision();
+        if (recorder != null) {
+            recorder.record(direction);
+        }
+        long decided = System.nanoTime();
+        move();
+        long moved = System.nanoTime();
+        checkCollisions();
+        long collided = System.nanoTime();
+        if (running) {
+            checkFood();
+        }
+        metrics.recordTick(start, decided, moved, collided, System.nanoTime());
+        ticks++;
+        return running;
+    }
+
+    // 隨機生成食物：直接從空格索引中抽一格
+    // 蛇 (含尚未長出的節數) 已經能佔滿整個棋盤時，遊戲以勝利結束，不再放置食物
+    public void newFood() {
+        if (length + pendingGrowth >= GAME_UNITS) {
+            foodX = -1;
+            foodY = -1;
+            die(CAUSE_WIN);
+            return;
+        }
+        int cell = freeCells[random.nextInt(freeCount)];
+        foodX = cell % COLS;
+        foodY = cell / COLS;
+    }
+
+    // 移動蛇：釋放蛇尾 (若沒有要長大) 並推入新的蛇頭，不需逐節搬移
+    public void move() {
+        if (pendingGrowth > 0) {
+            pendingGrowth--;
+        } else {
+            release(ring[tail]);
+            tail = next(tail);
+            length--;
+        }
+
+        switch (direction) {
+            case 'U': // 上
+                headY--;
+                break;
+            case 'D': // 下
+                headY++;
+                break;
+            case 'L': // 左
+                headX--;
+                break;
+            case 'R': // 右
+                headX++;
+                break;
+        }
+
+        // 撞牆時蛇頭不寫入棋盤，由 checkCollisions 判定
+        if (inBounds(headX, headY)) {
+            int cell = headY * COLS + headX;
+            head = next(head);
+            ring[head] = cell;
+            occupy(cell);
+            length++;
+        }
+        ticksSinceFood++;
+    }
+
+    // 檢查蛇頭是否吃到食物，增加蛇的長度
+    public void checkFood() {
+        if (headX == foodX && headY == foodY) {
+            // 下一次移動時保留蛇尾，讓蛇自然長出一節
+            pendingGrowth++;
+            foodEaten++;
+            ticksSinceFood = 0;
+            newFood();
+        }
+    }
+
+    // 碰撞檢查
+    public void checkCollisions() {
+        // 1. 檢查蛇頭是否撞牆
+        if (!inBounds(headX, headY)) {
+            die(CAUSE_WALL);
+            return;
+        }
+
+        // 2. 檢查蛇頭是否撞到自己：蛇頭所在的格子同時被其他節點佔用
+        // 蛇尾在 move() 中已先釋放，因此移入剛空出的蛇尾格不算碰撞
+        if (occupied[headY * COLS + headX] > 1) {
+            die(CAUSE_SELF);
+        }
+    }
+
+    private void die(int cause) {
+        running = false;
+        deathCause = cause;
+    }
+
+    // 自動化移動：由目前的自動駕駛策略決定方向
+    public void makeDecision() {
+        direction = strategy.decide(this);
+    }
+
+    // 原本的貪婪決策 (朝向食物)，只計算方向，不修改狀態
+    public char greedyDirection() {
+        // 優先朝著食物方向移動
+        if (headX < foodX && direction != 'L') {
+            if (!isCollision(headX + 1, headY)) {
+                return 'R';
+            }
+        }
+        if (headX > foodX && direction != 'R') {
+            if (!isCollision(headX - 1, headY)) {
+                return 'L';
+            }
+        }
+        if (headY < foodY && direction != 'U') {
+            if (!isCollision(headX, headY + 1)) {
+                return 'D';
+            }
+        }
+        if (headY > foodY && direction != 'D') {
+            if (!isCollision(headX, headY - 1)) {
+                return 'U';
+            }
+        }
+
+        // 如果所有通往食物的路都被擋住了，選擇一個不會碰撞的方向
+        if (!isCollision(headX + 1, headY) && direction != 'L') {
+            return 'R';
+        } else if (!isCollision(headX - 1, headY) && direction != 'R') {
+            return 'L';
+        } else if (!isCollision(headX, headY + 1) && direction != 'U') {
+            return 'D';
+        } else if (!isCollision(headX, headY - 1) && direction != 'D') {
+            return 'U';
+        }
+        return direction;
+    }
+
+    // 檢查某一格是否會碰撞 (牆壁或蛇身，包含尚未移開的蛇尾；與原本相同，不計蛇頭本身)
+    public boolean isCollision(int nextX, int nextY) {
+        if (!inBounds(nextX, nextY)) {
+            return true;
+        }
+        int cell = nextY * COLS + nextX;
+        return occupied[cell] > (cell == ring[head] ? 1 : 0);
+    }
+
+    // 佔用一格，若原本是空格則從空格索引移除
+    private void occupy(int cell) {
+        if (occupied[cell]++ == 0) {
+            int pos = freePos[cell];
+            int last = freeCells[--freeCount];
+            freeCells[pos] = last;
+            freePos[last] = pos;
+            freePos[cell] = -1;
+        }
+    }
+
+    // 釋放一格，若變回空格則加回空格索引
+    private void release(int cell) {
+        if (--occupied[cell] == 0) {
+            freeCells[freeCount] = cell;
+            freePos[cell] = freeCount;
+            freeCount++;
+        }
+    }
+
+    boolean inBounds(int x, int y) {
+        return x >= 0 && x < COLS && y >= 0 && y < ROWS;
+    }
+
+    // 環狀緩衝區的下一個位置
+    private int next(int index) {
+        return index + 1 == ring.length ? 0 : index + 1;
+    }
+
+    // 第 i 節 (0 為蛇頭) 在環狀緩衝區中的位置
+    private int segmentIndex(int i) {
+        int index = head - i;
+        return index < 0 ? index + ring.length : index;
+    }
+
+    // --- 唯讀存取，供繪圖與批次執行使用 ---
+
+    public int getCols() {
+        return COLS;
+    }
+
+    public int getRows() {
+        return ROWS;
+    }
+
+    // 目前在棋盤上的節數
+    public int getLength() {
+        return length;
+    }
+
+    // 第 i 節 (0 為蛇頭) 的格子索引
+    public int getSegmentCell(int i) {
+        return ring[segmentIndex(i)];
+    }
+
+    public int getSegmentX(int i) {
+        return getSegmentCell(i) % COLS;
+    }
+
+    public int getSegmentY(int i) {
+        return getSegmentCell(i) / COLS;
+    }
+
+    public int getHeadX() {
+        return headX;
+    }
+
+    public int getHeadY() {
+        return headY;
+    }
+
+    public int getTailCell() {
+        return ring[tail];
+    }
+
+    public boolean isOccupied(int x, int y) {
+        return occupied[y * COLS + x] != 0;
+    }
+
+    public int getFoodX() {
+        return foodX;
+    }
+
+    public int getFoodY() {
+        return foodY;
+    }
+
+    public char getDirection() {
+        return direction;
+    }
+
+    public void setDirection(char direction) {
+        this.direction = direction;
+    }
+
+    public AutopilotStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(AutopilotStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public void setMetrics(PerfMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    // 某一格 (棋盤內) 被蛇身佔用的節數
+    public int getOccupancy(int cell) {
+        return occupied[cell];
+    }
+
+    public int getHeadCell() {
+        return ring[head];
+    }
+
+    public int getPendingGrowth() {
+        return pendingGrowth;
+    }
+
+    public int getGameUnits() {
+        return GAME_UNITS;
+    }
+
+    // 方向字元對應 DIRECTIONS 的索引
+    public static int directionIndex(char direction) {
+        switch (direction) {
+            case 'U': return 0;
+            case 'D': return 1;
+            case 'L': return 2;
+            default: return 3;
+        }
+    }
+
+    // 相反方向
+    public static char opposite(char direction) {
+        switch (direction) {
+            case 'U': return 'D';
+            case 'D': return 'U';
+            case 'L': return 'R';
+            default: return 'L';
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isWon() {
+        return deathCause == CAUSE_WIN;
+    }
+
+    // 目前棋盤上的空格數
+    public int getFreeCount() {
+        return freeCount;
+    }
+
+    public int getDeathCause() {
+        return deathCause;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getTicksSinceFood() {
+        return ticksSinceFood;
+    }
+
+    public int getScore() {
+        return foodEaten;
+    }
+}
@@ -1,10 +1,18 @@
 import javax.swing.JFrame;
 import java.awt.GraphicsDevice;
 import java.awt.GraphicsEnvironment;
+import java.awt.Window;
+import java.io.IOException;
+import java.nio.file.Path;
 
 public class SnakeGame extends JFrame {
 
     public SnakeGame() {
+        this(null);
+    }
+
+    // 傳入重播資料時播放該場遊戲，而不是由自動駕駛遊玩
+    public SnakeGame(Replay replay) {
         // 設定視窗標題
         this.setTitle("Auto SnakeGame");
         // 設定關閉視窗時的行為
@@ -17,16 +25,51 @@ public class SnakeGame extends JFrame {
         this.setLocationRelativeTo(null);
 
         // 建立並新增 GamePanel
-        GamePanel gamePanel = new GamePanel();
+        GamePanel gamePanel = new GamePanel(replay);
         this.add(gamePanel);
         // 顯示視窗
         this.setVisible(true);
+
+        // 主動繪圖模式：視窗顯示後才能建立 BufferStrategy
+        if (GameSettings.current().renderModeIndex == 1) {
+            gamePanel.startActiveRendering(this);
+        }
+        // 設定檔被外部修改時通知目前的遊戲，每場結束的遊戲寫入分數紀錄並顯示排行榜 (重播時都不套用)
+        if (replay == null) {
+            GameSettings.setReloadListener(gamePanel::onSettingsReloaded);
+            gamePanel.setScoreLog(ScoreLog.shared());
+        }
+    }
+
+    // 關閉所有現有視窗，並以目前的設定重新建立遊戲視窗
+    static void restartGame() {
+        for (Window window : Window.getWindows()) {
+            window.dispose();
+        }
+        new SnakeGame();
     }
 
     public static void main(String[] args) {
         // 在啟動前先載入設定
         GameSettings.loadSettings();
+        // java SnakeGame --replay <檔案>：播放錄製的遊戲 (不寫回設定檔)
+        // 重播的棋盤放得進最大的畫面時，畫面大小依棋盤設定；否則以鏡頭播放
+        if (args.length >= 2 && args[0].equals("--replay")) {
+            try {
+                Replay replay = Replay.read(Path.of(args[1]));
+                int[] largest = GameSettings.SCREEN_SIZES[GameSettings.SCREEN_SIZES.length - 1];
+                if (replay.getCols() * 25 <= largest[0] && replay.getRows() * 25 <= largest[1]) {
+                    GameSettings.publish(GameSettings.current().withScreenSize(replay.getCols() * 25, replay.getRows() * 25));
+                }
+                javax.swing.SwingUtilities.invokeLater(() -> new SnakeGame(replay));
+            } catch (IOException e) {
+                System.err.println("Can't load replay: " + e.getMessage());
+            }
+            return;
+        }
+        // 設定檔被外部修改時自動套用
+        GameSettings.startWatching();
         // 使用 SwingUtilities.invokeLater 確保 GUI 在正確的線程上啟動
         javax.swing.SwingUtilities.invokeLater(() -> new SnakeGame());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,96 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+// 預先畫好的圖塊：蛇頭、蛇身、食物與競技場的蛇頭，依 UNIT_SIZE 只畫一次，之後每一格都只是貼圖
+// 使用與螢幕相容的影像，讓 Java2D 可以加速貼圖；食物的 fillOval 也只在建立圖塊時做一次
+// 遊戲結束畫面 (分數、訊息與排行榜) 的字型、字型度量與固定訊息的寬度也在這裡快取
+// (文字不預先畫成圖塊：Java2D 的字形快取直接畫字比貼上半透明的文字圖塊更快)
+public class SpriteCache {
+
+    // 顏色與字型 (整個遊戲共用)
+    static final Color HEAD_COLOR = Color.green;
+    static final Color BODY_COLOR = new Color(45, 180, 0);
+    static final Color FOOD_COLOR = Color.red;
+    static final Color ARENA_HEAD_COLOR = new Color(20, 20, 20);
+    static final Font SCORE_FONT = new Font("Ink Free", Font.BOLD, 40);
+    static final Font MESSAGE_FONT = new Font("Ink Free", Font.BOLD, 75);
+    // 排行榜使用等寬字型，讓各欄對齊
+    static final Font LEADERBOARD_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 16);
+    static final Color LEADERBOARD_COLOR = new Color(60, 60, 60);
+    static final String GAME_OVER_MESSAGE = "Game Over";
+    static final String WIN_MESSAGE = "You Win";
+
+    // 最近一次建立的圖塊 (UNIT_SIZE 與螢幕設定相同時重複使用，重新開始遊戲不必重畫)
+    private static SpriteCache cached;
+
+    final int unitSize;
+    final BufferedImage head;
+    final BufferedImage body;
+    final BufferedImage food;
+    final BufferedImage arenaHead;
+    // 遊戲結束畫面的字型度量與訊息寬度
+    final FontMetrics scoreMetrics;
+    final FontMetrics messageMetrics;
+    final FontMetrics leaderboardMetrics;
+    final int gameOverWidth;
+    final int winWidth;
+    final GraphicsConfiguration config;
+
+    private SpriteCache(GraphicsConfiguration config, int unitSize) {
+        this.config = config;
+        this.unitSize = unitSize;
+
+        head = createImage(unitSize, unitSize, Transparency.OPAQUE);
+        fill(head, HEAD_COLOR);
+        body = createImage(unitSize, unitSize, Transparency.OPAQUE);
+        fill(body, BODY_COLOR);
+
+        food = createImage(unitSize, unitSize, Transparency.BITMASK);
+        Graphics g = food.getGraphics();
+        g.setColor(FOOD_COLOR);
+        g.fillOval(0, 0, unitSize, unitSize);
+        g.dispose();
+
+        int inset = unitSize / 4;
+        arenaHead = createImage(unitSize - 2 * inset, unitSize - 2 * inset, Transparency.OPAQUE);
+        fill(arenaHead, ARENA_HEAD_COLOR);
+
+        g = food.getGraphics();
+        scoreMetrics = g.getFontMetrics(SCORE_FONT);
+        messageMetrics = g.getFontMetrics(MESSAGE_FONT);
+        leaderboardMetrics = g.getFontMetrics(LEADERBOARD_FONT);
+        g.dispose();
+        gameOverWidth = messageMetrics.stringWidth(GAME_OVER_MESSAGE);
+        winWidth = messageMetrics.stringWidth(WIN_MESSAGE);
+    }
+
+    // 取得指定大小的圖塊 (只在 EDT 或主動繪圖的執行緒上呼叫)
+    static synchronized SpriteCache get(GraphicsConfiguration config, int unitSize) {
+        SpriteCache sprites = cached;
+        if (sprites == null || sprites.unitSize != unitSize || sprites.config != config) {
+            sprites = new SpriteCache(config, unitSize);
+            cached = sprites;
+        }
+        return sprites;
+    }
+
+    private BufferedImage createImage(int width, int height, int transparency) {
+        if (config != null) {
+            return config.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height,
+                transparency == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private static void fill(BufferedImage image, Color color) {
+        Graphics g = image.getGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.dispose();
+    }
+}
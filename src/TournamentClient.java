@@ -0,0 +1,186 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+// 錦標賽的本機測試客戶端：同時開啟多個迴路 (loopback) 連線，每個連線以指定的自動駕駛策略玩一場遊戲
+// 客戶端在本地依收到的局面重建棋盤再做決策，並以相同的種子在本地重新模擬整場遊戲，
+// 確認透過網路進行的遊戲與本地結果完全相同；慢速客戶端會在第 SLOW_TICK 刻故意超過期限，應被判定棄權
+// 連接埠為 0 (預設) 時在同一個程序內啟動伺服器 (76x43 棋盤，每刻期限預設 25 毫秒)
+// 用法: java TournamentClient [客戶端數] [策略名稱] [慢速客戶端數] [連接埠] [內建伺服器的每刻期限(毫秒)]
+public class TournamentClient {
+
+    // 慢速客戶端在這一刻故意超過期限
+    static final int SLOW_TICK = 10;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int strategyIndex = args.length > 1 ? AutopilotStrategies.indexOf(args[1]) : 0;
+        int slowClients = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        int deadline = args.length > 4 ? Integer.parseInt(args[4]) : GameSettings.GAME_SPEEDS[GameSettings.GAME_SPEEDS.length - 1];
+        if (strategyIndex < 0) {
+            System.err.println("Unknown strategy: " + args[1]);
+            return;
+        }
+
+        TournamentServer embedded = null;
+        if (port == 0) {
+            embedded = new TournamentServer(0, GameSettings.SCREEN_SIZES[4][0] / 25, GameSettings.SCREEN_SIZES[4][1] / 25,
+                    deadline, 42L);
+            embedded.verbose = false;
+            embedded.start();
+            port = embedded.getPort();
+        }
+
+        // 每個客戶端的結果寫入自己的位置
+        Result[] results = new Result[clients];
+        Thread[] threads = new Thread[clients];
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            int index = i;
+            boolean slow = i < slowClients;
+            int serverPort = port;
+            threads[i] = new Thread(() -> results[index] = play(serverPort, strategyIndex, slow), "bot-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (embedded != null) {
+            embedded.stop();
+        }
+
+        long totalTicks = 0;
+        long totalScore = 0;
+        int timeouts = 0;
+        int failures = 0;
+        for (int i = 0; i < clients; i++) {
+            Result result = results[i];
+            if (result.error != null) {
+                System.out.println("client " + i + ": " + result.error);
+                failures++;
+                continue;
+            }
+            totalTicks += result.ticks;
+            totalScore += result.score;
+            boolean slow = i < slowClients;
+            if (result.cause == TournamentServer.CAUSE_TIMEOUT) {
+                timeouts++;
+                if (!slow) {
+                    System.out.println("client " + i + ": unexpected timeout at tick " + result.ticks);
+                    failures++;
+                }
+            } else if (slow) {
+                System.out.println("client " + i + ": slow client was not timed out");
+                failures++;
+            } else if (!result.matchesLocal) {
+                System.out.printf("client %d: networked game (score %d, ticks %d) differs from local simulation%n",
+                        i, result.score, result.ticks);
+                failures++;
+            }
+        }
+
+        System.out.printf("%d clients (%s, %d slow) on port %d in %.2f s%n",
+                clients, AutopilotStrategies.NAMES[strategyIndex], slowClients, port, seconds);
+        System.out.printf("ticks: %d (%.0f round trips/sec), avg score %.2f, timeouts %d%n",
+                totalTicks, totalTicks / seconds, (double) totalScore / clients, timeouts);
+        System.out.println(failures == 0 ? "OK" : "FAILED: " + failures + " client(s)");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // 一個客戶端的結果
+    static class Result {
+        int score;
+        long ticks;
+        int cause;
+        boolean matchesLocal;
+        String error;
+    }
+
+    // 連線並玩完一場遊戲
+    static Result play(int port, int strategyIndex, boolean slow) {
+        Result result = new Result();
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port))) {
+            channel.socket().setTcpNoDelay(true);
+            ByteBuffer hello = ByteBuffer.allocate(TournamentServer.HELLO_SIZE);
+            readFully(channel, hello);
+            if (hello.getInt() != TournamentServer.MAGIC || hello.getShort() != TournamentServer.VERSION) {
+                throw new IOException("Not a tournament server");
+            }
+            int cols = hello.getShort();
+            int rows = hello.getShort();
+            int deadlineMillis = hello.getInt();
+            long seed = hello.getLong();
+
+            // 本地的棋盤，每一刻依收到的局面重建
+            SnakeEngine mirror = new SnakeEngine(cols, rows, 0L);
+            AutopilotStrategy strategy = AutopilotStrategies.create(strategyIndex);
+            int[] cells = new int[cols * rows];
+            ByteBuffer header = ByteBuffer.allocate(TournamentServer.STATE_HEADER_SIZE);
+            ByteBuffer body = ByteBuffer.allocate(cols * rows * 4);
+            ByteBuffer command = ByteBuffer.allocate(1);
+
+            while (true) {
+                header.clear().limit(1);
+                readFully(channel, header);
+                byte frame = header.get();
+                if (frame == TournamentServer.FRAME_END) {
+                    header.clear().limit(TournamentServer.END_SIZE - 1);
+                    readFully(channel, header);
+                    result.score = header.getInt();
+                    result.ticks = header.getInt();
+                    result.cause = header.get();
+                    break;
+                }
+                if (frame != TournamentServer.FRAME_STATE) {
+                    throw new IOException("Unknown frame type " + frame);
+                }
+                header.clear().limit(TournamentServer.STATE_HEADER_SIZE - 1);
+                readFully(channel, header);
+                int tick = header.getInt();
+                header.getInt(); // 分數 (本地不需要)
+                int foodX = header.getShort();
+                int foodY = header.getShort();
+                char direction = (char) header.get();
+                int pendingGrowth = header.getShort();
+                int length = header.getInt();
+                body.clear().limit(length * 4);
+                readFully(channel, body);
+                for (int i = 0; i < length; i++) {
+                    cells[i] = body.getInt();
+                }
+                mirror.loadState(cells, length, foodX, foodY, direction, pendingGrowth);
+
+                char decision = strategy.decide(mirror);
+                if (slow && tick == SLOW_TICK) {
+                    Thread.sleep(deadlineMillis * 2L);
+                }
+                command.clear();
+                command.put((byte) decision).flip();
+                channel.write(command);
+            }
+
+            // 以相同的種子在本地重新模擬，結果應與伺服器上的遊戲相同
+            SnakeEngine local = new SnakeEngine(cols, rows, seed);
+            local.setStrategy(AutopilotStrategies.create(strategyIndex));
+            BatchRunner.playGame(local);
+            result.matchesLocal = local.getScore() == result.score && local.getTicks() == result.ticks;
+        } catch (IOException | InterruptedException e) {
+            result.error = e.toString();
+        }
+        return result;
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Server closed the connection");
+            }
+        }
+        buffer.flip();
+    }
+}
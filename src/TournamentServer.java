@@ -0,0 +1,336 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// 錦標賽伺服器：讓以其他語言寫成的機器人透過本機 TCP 連線來操控蛇，不需要修改 GamePanel
+// 每個連線各自進行一場無視窗的遊戲，所有連線都由同一個執行緒以 NIO Selector 非阻塞地處理
+// 每一刻送出二進位的局面，等待客戶端回傳方向 (取代 makeDecision())；
+// 超過期限沒有回應的客戶端判定棄權，不會拖慢其他場次 (第一個局面另有一秒的初始化時間)
+// 用法: java TournamentServer [連接埠] [棋盤寬] [棋盤高] [每刻期限(毫秒)] [種子]
+public class TournamentServer implements Runnable {
+
+    // 協定 (big-endian)：
+    // 連線後伺服器先送出 hello：magic "SNKT" | 版本 (short) | 棋盤寬 (short) | 棋盤高 (short) | 每刻期限毫秒 (int) | 種子 (long)
+    // 之後每一刻送出局面：FRAME_STATE (byte) | 刻數 (int) | 分數 (int) | 食物 x (short) | 食物 y (short)
+    //                    | 目前方向 (byte) | 待長節數 (short) | 蛇長 (int) | 蛇身格子索引 y * 寬 + x (int，蛇頭在前)
+    // 客戶端對每個局面回傳一個位元組的方向 'U'、'D'、'L'、'R'
+    // 遊戲結束時送出：FRAME_END (byte) | 分數 (int) | 刻數 (int) | 結束原因 (byte)，然後關閉連線
+    public static final int MAGIC = 0x534E4B54; // "SNKT"
+    public static final short VERSION = 1;
+    public static final int HELLO_SIZE = 4 + 2 + 2 + 2 + 4 + 8;
+    public static final byte FRAME_STATE = 1;
+    public static final byte FRAME_END = 2;
+    public static final int STATE_HEADER_SIZE = 1 + 4 + 4 + 2 + 2 + 1 + 2 + 4;
+    public static final int END_SIZE = 1 + 4 + 4 + 1;
+    // 第一個局面的期限較寬，讓客戶端有時間完成初始化 (載入類別、配置緩衝區)
+    static final long FIRST_TICK_GRACE_NANOS = 1_000_000_000L;
+
+    // 結束原因：SnakeEngine 的 CAUSE_* 之外，伺服器另外定義的原因
+    public static final int CAUSE_STARVED = 4;  // 太久沒吃到食物
+    public static final int CAUSE_TIMEOUT = 5;  // 超過期限沒有回傳方向 (棄權)
+    public static final int CAUSE_PROTOCOL = 6; // 無效的指令或中途斷線
+    private static final String[] CAUSE_NAMES = {"none", "wall", "self", "win", "starved", "timeout", "protocol"};
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final int cols;
+    private final int rows;
+    private final int deadlineMillis;
+    private final long deadlineNanos;
+    private final long seed;
+    private final long starveLimit;
+    // 進行中的場次
+    private final List<Match> matches = new ArrayList<>();
+    private int nextMatchId;
+    private volatile boolean running = true;
+    // 是否印出每一場的結果
+    boolean verbose = true;
+
+    public TournamentServer(int port, int cols, int rows, int deadlineMillis, long seed) throws IOException {
+        this.cols = cols;
+        this.rows = rows;
+        this.deadlineMillis = deadlineMillis;
+        this.deadlineNanos = deadlineMillis * 1_000_000L;
+        this.seed = seed;
+        this.starveLimit = (long) cols * rows * 4;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        // 只接受本機連線
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : GameSettings.SCREEN_SIZES[4][0] / 25;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : GameSettings.SCREEN_SIZES[4][1] / 25;
+        int deadline = args.length > 3 ? Integer.parseInt(args[3]) : GameSettings.GAME_SPEEDS[GameSettings.GAME_SPEEDS.length - 1];
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42L;
+
+        TournamentServer tournament = new TournamentServer(port, cols, rows, deadline, seed);
+        System.out.printf("Tournament server on port %d, board %dx%d, %d ms per tick, seed %d%n",
+                tournament.getPort(), cols, rows, deadline, seed);
+        tournament.run();
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    // 在背景的 daemon 執行緒上執行 (給 TournamentClient 的本機測試使用)
+    public Thread start() {
+        Thread thread = new Thread(this, "tournament-server");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    // Selector 迴圈：等到有事件或最早的期限到達，處理所有就緒的連線，再檢查逾時的場次
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                long timeout = 0;
+                for (Match match : matches) {
+                    if (match.awaiting) {
+                        long wait = Math.max(1, (match.deadline - now + 999_999) / 1_000_000);
+                        timeout = timeout == 0 ? wait : Math.min(timeout, wait);
+                    }
+                }
+                selector.select(timeout);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Match match = (Match) key.attachment();
+                    if (key.isReadable()) {
+                        match.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        match.flush();
+                    }
+                }
+
+                now = System.nanoTime();
+                for (int i = matches.size() - 1; i >= 0; i--) {
+                    Match match = matches.get(i);
+                    if (match.awaiting && now - match.deadline > 0) {
+                        match.end(CAUSE_TIMEOUT);
+                    }
+                    if (match.closed) {
+                        // 與最後一個交換後移除，不需搬移整個清單
+                        Match last = matches.remove(matches.size() - 1);
+                        if (i < matches.size()) {
+                            matches.set(i, last);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            for (Match match : matches) {
+                match.close();
+            }
+            try {
+                selector.close();
+                server.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            int id = nextMatchId++;
+            Match match = new Match(id, channel, ParallelEvaluator.gameSeed(seed, 0, 0, id));
+            match.key = channel.register(selector, SelectionKey.OP_READ, match);
+            matches.add(match);
+            match.start();
+        }
+    }
+
+    static String causeName(int cause) {
+        return cause >= 0 && cause < CAUSE_NAMES.length ? CAUSE_NAMES[cause] : String.valueOf(cause);
+    }
+
+    // 一場遊戲：一個連線、一個引擎，以及重複使用的讀寫緩衝區
+    private class Match {
+        final int id;
+        final SocketChannel channel;
+        final long gameSeed;
+        final SnakeEngine engine;
+        SelectionKey key;
+        // 待送出的資料 (蛇變長時才加大)；收到的指令
+        ByteBuffer out = ByteBuffer.allocateDirect(4096);
+        final ByteBuffer in = ByteBuffer.allocateDirect(256);
+        // 是否正在等待客戶端回傳方向，以及期限
+        boolean awaiting;
+        long deadline;
+        // 結束畫面送出後關閉
+        boolean ending;
+        boolean closed;
+
+        Match(int id, SocketChannel channel, long gameSeed) {
+            this.id = id;
+            this.channel = channel;
+            this.gameSeed = gameSeed;
+            this.engine = new SnakeEngine(cols, rows, gameSeed);
+        }
+
+        void start() {
+            out.putInt(MAGIC);
+            out.putShort(VERSION);
+            out.putShort((short) cols);
+            out.putShort((short) rows);
+            out.putInt(deadlineMillis);
+            out.putLong(gameSeed);
+            sendState();
+        }
+
+        // 讀取客戶端的指令，每個位元組推進一刻
+        void read() {
+            int count;
+            try {
+                count = channel.read(in);
+            } catch (IOException e) {
+                count = -1;
+            }
+            if (count < 0) {
+                end(CAUSE_PROTOCOL);
+                return;
+            }
+            in.flip();
+            while (in.hasRemaining() && awaiting) {
+                char direction = (char) in.get();
+                if (direction != 'U' && direction != 'D' && direction != 'L' && direction != 'R') {
+                    end(CAUSE_PROTOCOL);
+                    break;
+                }
+                awaiting = false;
+                if (!engine.step(direction)) {
+                    end(engine.getDeathCause());
+                } else if (engine.getTicksSinceFood() > starveLimit) {
+                    end(CAUSE_STARVED);
+                } else {
+                    sendState();
+                }
+            }
+            in.compact();
+        }
+
+        // 送出目前的局面並開始計算期限
+        void sendState() {
+            int length = engine.getLength();
+            ensureOutput(STATE_HEADER_SIZE + length * 4);
+            out.put(FRAME_STATE);
+            out.putInt((int) engine.getTicks());
+            out.putInt(engine.getScore());
+            out.putShort((short) engine.getFoodX());
+            out.putShort((short) engine.getFoodY());
+            out.put((byte) engine.getDirection());
+            out.putShort((short) engine.getPendingGrowth());
+            out.putInt(length);
+            for (int i = 0; i < length; i++) {
+                out.putInt(engine.getSegmentCell(i));
+            }
+            awaiting = true;
+            deadline = System.nanoTime() + (engine.getTicks() == 0 ? FIRST_TICK_GRACE_NANOS : deadlineNanos);
+            flush();
+        }
+
+        // 送出結束畫面，送完後關閉連線
+        void end(int cause) {
+            if (ending) {
+                return;
+            }
+            awaiting = false;
+            ending = true;
+            if (verbose) {
+                System.out.printf("match %d: score %d, ticks %d, %s%n", id, engine.getScore(), engine.getTicks(), causeName(cause));
+            }
+            ensureOutput(END_SIZE);
+            out.put(FRAME_END);
+            out.putInt(engine.getScore());
+            out.putInt((int) engine.getTicks());
+            out.put((byte) cause);
+            flush();
+        }
+
+        // 盡量寫出待送出的資料；寫不完時等待 OP_WRITE，不阻塞 Selector 執行緒
+        void flush() {
+            out.flip();
+            try {
+                channel.write(out);
+            } catch (IOException e) {
+                out.clear();
+                close();
+                return;
+            }
+            boolean pending = out.hasRemaining();
+            out.compact();
+            if (pending) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            } else if (ending) {
+                close();
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        // 確保輸出緩衝區還放得下 size 個位元組 (以 2 的次方加大，保留尚未送出的資料)
+        void ensureOutput(int size) {
+            if (out.remaining() >= size) {
+                return;
+            }
+            int capacity = out.capacity();
+            while (capacity - out.position() < size) {
+                capacity *= 2;
+            }
+            ByteBuffer larger = ByteBuffer.allocateDirect(capacity);
+            out.flip();
+            larger.put(out);
+            out = larger;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            awaiting = false;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // 連線已經斷了
+            }
+        }
+    }
+}
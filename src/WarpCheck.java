@@ -0,0 +1,110 @@
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+// 加速模式的檢查 (headless)：1920x1080 畫面 (76x43 棋盤) 以 Hamiltonian 自動駕駛在各個加速倍率下遊玩
+// EDT 以螢幕更新率畫出最新的快照，另外每 10 毫秒向 EDT 送出一個小工作 (代替 O 與 ESC 按鍵) 量測它等了多久
+// 全速時應在數秒內填滿整個棋盤，且 EDT 的延遲不受模擬影響
+// 用法: java -Djava.awt.headless=true WarpCheck [每個倍率的秒數] [全速填滿棋盤的秒數上限]
+public class WarpCheck {
+
+    private static final long PROBE_INTERVAL_MILLIS = 10;
+    // 開始後這段時間不量測 (第一次繪圖建立圖層)
+    private static final long WARMUP_NANOS = 500_000_000L;
+    // EDT 工作的等待時間上限 (第 99 百分位)
+    private static final long MAX_EDT_LATENCY_NANOS = 50_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 3;
+        double fillLimit = args.length > 1 ? Double.parseDouble(args[1]) : 60;
+        boolean passed = true;
+        // 暖機 (不列入結果)：讓 JIT 編譯完成，第一次繪圖的圖層與圖塊也先建立
+        run(GameSettings.WARP_FACTORS.length - 1, 1, false, false);
+        // 1x 由 Swing Timer 推進 (每刻 25 毫秒)，其餘倍率由模擬執行緒推進
+        for (int warpIndex = 0; warpIndex < GameSettings.WARP_FACTORS.length; warpIndex++) {
+            boolean max = GameSettings.WARP_FACTORS[warpIndex] == 0;
+            passed &= run(warpIndex, max ? fillLimit : seconds, max, true);
+        }
+        System.out.println(passed ? "OK" : "FAILED");
+        System.exit(passed ? 0 : 1);
+    }
+
+    // 在指定的倍率下遊玩一段時間 (untilWon 時直到填滿棋盤或超過時間)
+    static boolean run(int warpIndex, double seconds, boolean untilWon, boolean report) throws Exception {
+        GameSettings.publish(new GameSettings.Snapshot(4, 4, 2, 0, false, 0, 0, warpIndex));
+        GamePanel[] panel = new GamePanel[1];
+        SwingUtilities.invokeAndWait(() -> {
+            panel[0] = new GamePanel();
+            panel[0].setSize(1920, 1080);
+        });
+
+        // 以下的欄位都只在 EDT 上使用
+        LatencyHistogram latency = new LatencyHistogram();
+        BufferedImage image = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.getGraphics();
+        long[] paints = new long[1];
+        long[] wonAt = new long[1];
+        int[] score = new int[1];
+        long start = System.nanoTime();
+        Timer painter = new Timer(1000 / 60, e -> {
+            panel[0].draw(g);
+            paints[0]++;
+            RenderFrame frame = panel[0].frames.latest();
+            if (frame.state == RenderFrame.STATE_WON && wonAt[0] == 0) {
+                wonAt[0] = System.nanoTime();
+                score[0] = frame.score;
+            }
+        });
+        SwingUtilities.invokeAndWait(painter::start);
+
+        long deadline = start + (long) (seconds * 1e9);
+        while (System.nanoTime() < deadline) {
+            long sent = System.nanoTime();
+            if (sent - start >= WARMUP_NANOS) {
+                SwingUtilities.invokeLater(() -> latency.record(System.nanoTime() - sent));
+            }
+            Thread.sleep(PROBE_INTERVAL_MILLIS);
+            if (untilWon) {
+                boolean[] won = new boolean[1];
+                SwingUtilities.invokeAndWait(() -> won[0] = wonAt[0] != 0);
+                if (won[0]) {
+                    break;
+                }
+            }
+        }
+
+        long[] ticks = new long[1];
+        SwingUtilities.invokeAndWait(() -> {
+            painter.stop();
+            SimulationLoop loop = panel[0].simulationLoop;
+            panel[0].stopGameLoops();
+            ticks[0] = loop != null ? loop.getTicks() : panel[0].engine.getTicks();
+            g.dispose();
+        });
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        if (!report) {
+            return true;
+        }
+
+        int warp = GameSettings.WARP_FACTORS[warpIndex];
+        System.out.printf("warp %-4s: %,11d ticks in %4.1f s (%,10.0f ticks/s), %4d paints (%.0f/s), "
+                        + "EDT latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                warp == 0 ? "max" : warp + "x", ticks[0], elapsed, ticks[0] / elapsed, paints[0], paints[0] / elapsed,
+                latency.percentile(50) / 1e6, latency.percentile(99) / 1e6, latency.getMax() / 1e6);
+        boolean passed = true;
+        if (latency.percentile(99) > MAX_EDT_LATENCY_NANOS) {
+            System.out.printf("FAIL: EDT p99 latency above %d ms%n", MAX_EDT_LATENCY_NANOS / 1_000_000);
+            passed = false;
+        }
+        if (untilWon) {
+            if (wonAt[0] == 0) {
+                System.out.printf("FAIL: board not filled within %.0f s%n", seconds);
+                passed = false;
+            } else {
+                System.out.printf("           board filled (score %d) in %.1f s%n", score[0], (wonAt[0] - start) / 1e9);
+            }
+        }
+        return passed;
+    }
+}